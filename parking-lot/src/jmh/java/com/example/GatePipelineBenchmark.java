@@ -0,0 +1,76 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Gate events per second through a GatePipeline: each invocation sends a burst of arrivals spread
+// over the lots, waits for them, then sends the matching departures and waits again.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatePipelineBenchmark {
+    static final int BURST = 1000;
+
+    @Param({"1", "8"})
+    int lanes;
+
+    @Param({"16"})
+    int lotCount;
+
+    List<ParkingLot> lots;
+    GatePipeline pipeline;
+    Car[] cars;
+
+    @Setup(Level.Trial)
+    public void startPipeline() {
+        lots = new ArrayList<>();
+        for (int i = 0; i < lotCount; i++) {
+            lots.add(new ParkingLot(BURST));
+        }
+        pipeline = new GatePipeline(lots, lanes, 8192, 256, GatePipeline.Backpressure.BLOCK);
+        cars = new Car[BURST];
+        for (int i = 0; i < BURST; i++) {
+            cars[i] = ParkingLotBenchmark.car("CAR" + i, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPipeline() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * BURST)
+    public void arriveAndDepart() {
+        List<CompletableFuture<Ticket>> arrivals = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            arrivals.add(pipeline.arrive(lots.get(i % lotCount), cars[i]));
+        }
+        List<CompletableFuture<Car>> departures = new ArrayList<>(BURST);
+        for (CompletableFuture<Ticket> arrival : arrivals) {
+            departures.add(pipeline.depart(arrival.join()));
+        }
+        for (CompletableFuture<Car> departure : departures) {
+            departure.join();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ParkingAttendant.parkCar across many pre-filled lots, one benchmark per lot-selection strategy
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkingAttendantBenchmark {
+    @Param({"10", "500"})
+    int lots;
+
+    @Param({"1000"})
+    int capacity;
+
+    @Param({"0.5", "0.9"})
+    double fillRatio;
+
+    List<ParkingLot> parkingLots;
+    ParkingAttendant attendant;
+
+    @Setup
+    public void fillLots() {
+        parkingLots = new ArrayList<>();
+        for (int lotId = 0; lotId < lots; lotId++) {
+            ParkingLot lot = new ParkingLot(capacity, new BenchmarkClock(), new SequenceTicketIdGenerator(lotId));
+            int cars = (int) (capacity * fillRatio);
+            for (int i = 0; i < cars; i++) {
+                lot.parkCar(ParkingLotBenchmark.car("L" + lotId + "-" + i, i));
+            }
+            parkingLots.add(lot);
+        }
+        attendant = new ParkingAttendant("Benchmark", parkingLots);
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        Car car;
+
+        @Setup
+        public void createCar() {
+            car = ParkingLotBenchmark.car("GATE" + System.identityHashCode(this), 0);
+        }
+    }
+
+    private Car parkAndLeave(Gate gate, boolean isHandicap, boolean isLarge) {
+        Ticket ticket = attendant.parkCar(gate.car, isHandicap, isLarge);
+        if (ticket == null) {
+            return null;
+        }
+        // lot ids were assigned by list position, so the ticket says where the car went
+        return parkingLots.get(SequenceTicketIdGenerator.lotIdOf(ticket.getTicketId())).unparkCar(ticket);
+    }
+
+    @Benchmark
+    public Car parkInLotWithLeastCars(Gate gate) {
+        return parkAndLeave(gate, false, false);
+    }
+
+    @Benchmark
+    public Car parkInLotWithMostFreeSpaces(Gate gate) {
+        return parkAndLeave(gate, false, true);
+    }
+
+    @Benchmark
+    public Car parkInLotWithNearestFreeSpace(Gate gate) {
+        return parkAndLeave(gate, true, false);
+    }
+}
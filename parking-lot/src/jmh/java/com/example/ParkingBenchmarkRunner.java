@@ -0,0 +1,24 @@
+package com.example;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs every benchmark once per thread count with the GC profiler attached, so each result row
+// carries throughput and gc.alloc.rate.norm (bytes per operation).
+// Usage: java -cp target/benchmarks.jar com.example.ParkingBenchmarkRunner [threads...] (default 1 4 8)
+public class ParkingBenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String[] threadCounts = args.length == 0 ? new String[] {"1", "4", "8"} : args;
+        for (String threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(ParkingLotBenchmark.class.getSimpleName())
+                    .include(ParkingAttendantBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threads))
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Hot paths of a single lot that is pre-filled to fillRatio; run with ParkingBenchmarkRunner
+// (or -t N -prof gc) to get throughput and allocation rate per thread count.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkingLotBenchmark {
+    static final String[] COLORS = {"White", "Black", "Silver", "Gray", "Blue", "Red", "Green", "Brown", "Yellow", "Orange"};
+    static final String[] MAKES = {"Toyota", "Honda", "Ford", "BMW", "Audi", "Kia", "Tesla", "Mazda", "Volvo", "Fiat"};
+
+    @Param({"1000", "100000"})
+    int capacity;
+
+    @Param({"0.5", "0.9"})
+    double fillRatio;
+
+    ParkingLot parkingLot;
+    Ticket[] tickets;
+    int recentMinutes;
+
+    @Setup
+    public void fillLot() {
+        BenchmarkClock clock = new BenchmarkClock();
+        parkingLot = new ParkingLot(capacity, clock);
+        tickets = new Ticket[(int) (capacity * fillRatio)];
+        for (int i = 0; i < tickets.length; i++) {
+            clock.advance(Duration.ofSeconds(1));
+            tickets[i] = parkingLot.parkCar(car("CAR" + i, i));
+        }
+        recentMinutes = Math.max(1, tickets.length / 100 / 60); // roughly the latest 1% of arrivals
+    }
+
+    static Car car(String plate, int i) {
+        return new Car(plate, COLORS[i % COLORS.length], MAKES[(i / COLORS.length) % MAKES.length], "Model", "medium", false);
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        Car car;
+        int next;
+
+        @Setup
+        public void createCar() {
+            car = car("GATE" + System.identityHashCode(this), 0);
+        }
+    }
+
+    // Keeps occupancy steady: every car that comes in leaves again
+    @Benchmark
+    public Car parkAndUnpark(Gate gate) {
+        Ticket ticket = parkingLot.parkCar(gate.car);
+        return ticket == null ? null : parkingLot.unparkCar(ticket);
+    }
+
+    @Benchmark
+    public String findCar(Gate gate) {
+        gate.next = (gate.next + 1) % tickets.length;
+        return parkingLot.findCar(tickets[gate.next]);
+    }
+
+    @Benchmark
+    public Map<Car, String> findCarsByColor(Gate gate) {
+        gate.next++;
+        return parkingLot.findCarsByColor(COLORS[gate.next % COLORS.length]);
+    }
+
+    @Benchmark
+    public Map<Car, String> findCarsByMake(Gate gate) {
+        gate.next++;
+        return parkingLot.findCarsByMake(MAKES[gate.next % MAKES.length]);
+    }
+
+    @Benchmark
+    public Map<Car, String> findCarsParkedWithinLastMinutes() {
+        return parkingLot.findCarsParkedWithinLastMinutes(recentMinutes);
+    }
+}
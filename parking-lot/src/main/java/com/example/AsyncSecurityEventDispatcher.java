@@ -0,0 +1,182 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands security events to a single background thread, so a slow observer never holds up parking.
+// Each drain keeps only the latest event per lot and delivers the lot's sign as it is then, skipping
+// lots whose sign hasn't changed since the last delivery, so a burst of transitions reaches
+// observers as one event. One dispatcher can serve many lots; close() stops the delivery thread,
+// and events published after that are dropped.
+public class AsyncSecurityEventDispatcher implements SecurityEventDispatcher, AutoCloseable {
+
+    public enum OverflowPolicy {
+        DROP_OLDEST, // a lot's new event replaces its own queued one, so at most one per lot waits and
+                     // no lot's transition is ever dropped for another's; the queue capacity is unused
+        BLOCK        // make the parking thread wait for room in the bounded queue
+    }
+
+    // Which lot changed; the state delivered is read from the lot, see SecurityEventDispatcher
+    private static final class SecurityEvent {
+        final ParkingLot lot;
+        final List<SecurityObserver> observers;
+
+        SecurityEvent(ParkingLot lot, List<SecurityObserver> observers) {
+            this.lot = lot;
+            this.observers = observers;
+        }
+    }
+
+    private final BlockingQueue<SecurityEvent> queue; // BLOCK only
+    private final Map<ParkingLot, SecurityEvent> latestByLot = new LinkedHashMap<>(); // DROP_OLDEST, guarded by itself
+    private final OverflowPolicy overflowPolicy;
+    private final Map<ParkingLot, Boolean> delivered = new IdentityHashMap<>(); // only touched by the worker
+    private final Map<ParkingLot, Boolean> signAtInstall = new ConcurrentHashMap<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong failedNotifications = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // queueCapacity bounds the BLOCK queue; DROP_OLDEST keeps one event per lot and doesn't use it
+    public AsyncSecurityEventDispatcher(int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == OverflowPolicy.BLOCK && queueCapacity <= 0) {
+            throw new IllegalArgumentException("A blocking queue needs a positive capacity");
+        }
+        this.queue = overflowPolicy == OverflowPolicy.BLOCK ? new ArrayBlockingQueue<>(queueCapacity) : null;
+        this.overflowPolicy = overflowPolicy;
+        this.worker = new Thread(this::deliverEvents, "security-event-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void publish(ParkingLot lot, boolean isFull, List<SecurityObserver> observers) {
+        if (!running) {
+            return;
+        }
+        SecurityEvent event = new SecurityEvent(lot, observers);
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                // waits for room, but gives up once closed: nothing would make room then
+                while (!queue.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        synchronized (latestByLot) {
+            if (latestByLot.remove(lot) != null) {
+                droppedEvents.incrementAndGet();
+            }
+            latestByLot.put(lot, event);
+            latestByLot.notifyAll();
+        }
+    }
+
+    // The sign's state when the lot started using this dispatcher, so a lot installed while full
+    // still has its first not-full transition delivered
+    @Override
+    public void attach(ParkingLot lot) {
+        signAtInstall.put(lot, lot.isFullSignDisplayed());
+    }
+
+    // Events superseded by a later event for the same lot before they were delivered
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    // Observers that threw instead of taking a notification
+    public long getFailedNotifications() {
+        return failedNotifications.get();
+    }
+
+    private boolean hasPending() {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            return !queue.isEmpty();
+        }
+        synchronized (latestByLot) {
+            return !latestByLot.isEmpty();
+        }
+    }
+
+    // Waits up to 100ms for events and moves everything pending into batch
+    private void takeBatch(List<SecurityEvent> batch) throws InterruptedException {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            SecurityEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch);
+            }
+            return;
+        }
+        synchronized (latestByLot) {
+            if (latestByLot.isEmpty()) {
+                latestByLot.wait(100);
+            }
+            batch.addAll(latestByLot.values());
+            latestByLot.clear();
+        }
+    }
+
+    private void deliverEvents() {
+        List<SecurityEvent> batch = new ArrayList<>();
+        while (running || hasPending()) {
+            try {
+                takeBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            }
+
+            Map<ParkingLot, SecurityEvent> latest = new LinkedHashMap<>();
+            for (SecurityEvent event : batch) {
+                latest.remove(event.lot); // re-insert so lots are delivered in order of their last change
+                latest.put(event.lot, event);
+            }
+            batch.clear();
+
+            for (SecurityEvent event : latest.values()) {
+                boolean isFull = event.lot.isFullSignDisplayed();
+                Boolean previous = delivered.put(event.lot, isFull);
+                if (previous == null) {
+                    previous = signAtInstall.remove(event.lot); // null if never attached: assume not full
+                }
+                boolean wasFull = previous != null && previous;
+                if (wasFull == isFull) {
+                    continue; // the burst ended where it started
+                }
+                for (SecurityObserver observer : event.observers) {
+                    try {
+                        observer.notify(isFull);
+                    } catch (RuntimeException e) {
+                        failedNotifications.incrementAndGet(); // one broken observer must not stop deliveries to the others
+                    }
+                }
+            }
+        }
+    }
+
+    // Delivers what is already queued, then stops the background thread. An interrupted caller
+    // stops waiting, keeping its interrupt, while the thread finishes the queue on its own.
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Case-insensitive secondary index from one car attribute (color, make, ...) to the cars parked with it.
+// Updated on every park and unpark so lookups cost the number of matches, not the size of the lot.
+class AttributeIndex {
+    private final Map<String, Set<ParkedCar>> carsByValue = new ConcurrentHashMap<>();
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    void add(String value, ParkedCar parked) {
+        if (value == null) {
+            return;
+        }
+        carsByValue.computeIfAbsent(normalize(value), key -> ConcurrentHashMap.newKeySet()).add(parked);
+    }
+
+    void remove(String value, ParkedCar parked) {
+        if (value == null) {
+            return;
+        }
+        Set<ParkedCar> cars = carsByValue.get(normalize(value));
+        if (cars != null) {
+            cars.remove(parked); // empty sets are kept, there are only as many as distinct values
+        }
+    }
+
+    Set<ParkedCar> find(String value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        Set<ParkedCar> cars = carsByValue.get(normalize(value));
+        return cars == null ? Collections.<ParkedCar>emptySet() : Collections.unmodifiableSet(cars);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a batch park or unpark: what went through and what was turned away
+public class BatchResult<T, R> {
+    private final Map<T, R> succeeded = new LinkedHashMap<>();
+    private final List<T> failed = new ArrayList<>();
+
+    void succeeded(T item, R outcome) {
+        succeeded.put(item, outcome);
+    }
+
+    void failed(T item) {
+        failed.add(item);
+    }
+
+    void addAll(BatchResult<T, R> other) {
+        succeeded.putAll(other.succeeded);
+        failed.addAll(other.failed);
+    }
+
+    public Map<T, R> getSucceeded() {
+        return Collections.unmodifiableMap(succeeded);
+    }
+
+    public List<T> getFailed() {
+        return Collections.unmodifiableList(failed);
+    }
+
+    public boolean isComplete() {
+        return failed.isEmpty();
+    }
+}
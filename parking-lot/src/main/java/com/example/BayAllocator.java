@@ -0,0 +1,183 @@
+package com.example;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Hands out the bays of a LotTopology. Every bay type has its own free list, a SpotAllocator over
+// just the bays of that type in distance order, so the nearest free bay of a type is found in
+// O(log n) whatever the other bays are doing. Free counts per row and per zone are kept as the
+// bays come and go, so they are O(1) to read and can be read without the lock.
+class BayAllocator {
+    private final int capacity;
+    private final BayType[] typeOf;
+    private final int[] rowOf; // row id per slot, -1 for bays outside any row
+    private final int[] zoneOf;
+    private final String[] rowNames;
+    private final Map<String, Integer> rowIds = new HashMap<>();
+    private final Map<String, Integer> zoneIds = new HashMap<>();
+    private final Map<BayType, SpotAllocator> freeByType = new EnumMap<>(BayType.class);
+    private final Map<BayType, int[]> slotsByType = new EnumMap<>(BayType.class); // type-local index -> slot
+    private final int[] localIndex; // slot -> index in its type's free list
+    private final AtomicIntegerArray freeInRow;
+    private final AtomicIntegerArray freeInZone;
+    private final boolean[] taken;
+    private int free; // guarded by this
+
+    BayAllocator(LotTopology topology) {
+        capacity = topology.getCapacity();
+        typeOf = new BayType[capacity];
+        rowOf = new int[capacity];
+        zoneOf = new int[capacity];
+        localIndex = new int[capacity];
+        taken = new boolean[capacity];
+        free = capacity;
+
+        Map<BayType, Integer> perType = new EnumMap<>(BayType.class);
+        int slot = 0;
+        for (LotTopology.Run run : topology.runs()) {
+            int row = idOf(rowIds, run.row);
+            int zone = idOf(zoneIds, run.zone);
+            for (int i = 0; i < run.count; i++, slot++) {
+                typeOf[slot] = run.type;
+                rowOf[slot] = row;
+                zoneOf[slot] = zone;
+                localIndex[slot] = perType.merge(run.type, 1, Integer::sum) - 1;
+            }
+        }
+        rowNames = new String[rowIds.size()];
+        rowIds.forEach((name, id) -> rowNames[id] = name);
+
+        for (BayType type : BayType.values()) {
+            int count = perType.getOrDefault(type, 0);
+            freeByType.put(type, new SpotAllocator(count));
+            slotsByType.put(type, new int[count]);
+        }
+        freeInRow = new AtomicIntegerArray(rowIds.size());
+        freeInZone = new AtomicIntegerArray(zoneIds.size());
+        for (int s = 0; s < capacity; s++) {
+            slotsByType.get(typeOf[s])[localIndex[s]] = s;
+            if (rowOf[s] >= 0) {
+                freeInRow.incrementAndGet(rowOf[s]);
+            }
+            if (zoneOf[s] >= 0) {
+                freeInZone.incrementAndGet(zoneOf[s]);
+            }
+        }
+    }
+
+    private static int idOf(Map<String, Integer> ids, String name) {
+        return name == null ? -1 : ids.computeIfAbsent(name, key -> ids.size());
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    String rowOf(int slot) {
+        return rowOf[slot] < 0 ? null : rowNames[rowOf[slot]];
+    }
+
+    BayType typeOf(int slot) {
+        return typeOf[slot];
+    }
+
+    // Nearest free bay of the first type in the list that has one, claimed; -1 if none has
+    synchronized int allocate(BayType... preference) {
+        for (BayType type : preference) {
+            int local = freeByType.get(type).allocate();
+            if (local >= 0) {
+                int slot = slotsByType.get(type)[local];
+                taken(slot);
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Nearest free bay of any type, claimed; -1 if the lot is full
+    synchronized int allocate() {
+        int slot = nearestFree();
+        if (slot >= 0) {
+            allocate(slot);
+        }
+        return slot;
+    }
+
+    // Claims a particular bay; false if it is already taken
+    synchronized boolean allocate(int slot) {
+        if (slot < 0 || slot >= capacity || taken[slot]) {
+            return false;
+        }
+        freeByType.get(typeOf[slot]).allocate(localIndex[slot]);
+        taken(slot);
+        return true;
+    }
+
+    private void taken(int slot) {
+        taken[slot] = true;
+        free--;
+        if (rowOf[slot] >= 0) {
+            freeInRow.decrementAndGet(rowOf[slot]);
+        }
+        if (zoneOf[slot] >= 0) {
+            freeInZone.decrementAndGet(zoneOf[slot]);
+        }
+    }
+
+    synchronized void release(int slot) {
+        if (slot < 0 || slot >= capacity || !taken[slot]) {
+            return;
+        }
+        taken[slot] = false;
+        free++;
+        freeByType.get(typeOf[slot]).release(localIndex[slot]);
+        if (rowOf[slot] >= 0) {
+            freeInRow.incrementAndGet(rowOf[slot]);
+        }
+        if (zoneOf[slot] >= 0) {
+            freeInZone.incrementAndGet(zoneOf[slot]);
+        }
+    }
+
+    // Nearest free bay of this type without claiming it, or -1
+    synchronized int nearestFree(BayType type) {
+        int local = freeByType.get(type).nearestFree();
+        return local < 0 ? -1 : slotsByType.get(type)[local];
+    }
+
+    // Nearest free bay of any type, or -1; one O(log n) lookup per bay type
+    synchronized int nearestFree() {
+        int nearest = -1;
+        for (BayType type : BayType.values()) {
+            int slot = nearestFree(type);
+            if (slot >= 0 && (nearest < 0 || slot < nearest)) {
+                nearest = slot;
+            }
+        }
+        return nearest;
+    }
+
+    synchronized int getFreeSlots() {
+        return free;
+    }
+
+    int getFreeSlots(BayType type) {
+        return freeByType.get(type).getFreeSlots();
+    }
+
+    int getBays(BayType type) {
+        return slotsByType.get(type).length;
+    }
+
+    // Free bays in the row or zone; 0 for names the topology doesn't have
+    int getFreeInRow(String row) {
+        Integer id = rowIds.get(row);
+        return id == null ? 0 : freeInRow.get(id);
+    }
+
+    int getFreeInZone(String zone) {
+        Integer id = zoneIds.get(zone);
+        return id == null ? 0 : freeInZone.get(id);
+    }
+}
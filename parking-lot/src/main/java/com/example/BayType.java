@@ -0,0 +1,24 @@
+package com.example;
+
+// What a bay is marked out for; see LotTopology
+public enum BayType {
+    STANDARD,
+    LARGE,
+    HANDICAP;
+
+    // Bay types a car may use, best first: handicap cars fall back to ordinary bays, large cars
+    // to standard ones, and other cars never take a handicap bay
+    static BayType[] preferredFor(Car car) {
+        return preferredFor(car.isHandicap(), "large".equalsIgnoreCase(car.getSize()));
+    }
+
+    static BayType[] preferredFor(boolean isHandicap, boolean isLarge) {
+        if (isHandicap) {
+            return new BayType[] {HANDICAP, STANDARD, LARGE};
+        }
+        if (isLarge) {
+            return new BayType[] {LARGE, STANDARD};
+        }
+        return new BayType[] {STANDARD, LARGE};
+    }
+}
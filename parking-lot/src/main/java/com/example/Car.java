@@ -1,4 +1,6 @@
 package com.example;
+import java.util.Objects;
+
 public class Car {
     private String licensePlate;
     private String color;
@@ -38,4 +40,26 @@ public class Car {
     public boolean isHandicap() {
         return isHandicap;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Car)) {
+            return false;
+        }
+        Car other = (Car) o;
+        return isHandicap == other.isHandicap
+                && Objects.equals(licensePlate, other.licensePlate)
+                && Objects.equals(color, other.color)
+                && Objects.equals(make, other.make)
+                && Objects.equals(model, other.model)
+                && Objects.equals(size, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(licensePlate, color, make, model, size, isHandicap);
+    }
 }
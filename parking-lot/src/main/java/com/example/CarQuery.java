@@ -0,0 +1,208 @@
+package com.example;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// An ad-hoc query over the cars in a lot, from ParkingLot.query(), e.g.
+//   lot.query().color("red").size("large").rows("C", "D", "E", "F").parkedWithin(Duration.ofHours(1)).spots()
+// Row, size, handicap, color and make conditions are answered from SlotBitmaps a 64-slot word at a
+// time; an arrival condition on its own uses the lot's arrival index instead. Every match is
+// checked against the car in the slot before it is returned, so concurrent parking never yields a
+// wrong car. Conditions can be added in any order; a query can be run more than once.
+public class CarQuery {
+    private final ParkingLot lot;
+    private final SlotBitmaps bitmaps;
+    private String[] rows;
+    private String size;
+    private Boolean handicap;
+    private String color;
+    private String make;
+    private Duration parkedWithin;
+
+    CarQuery(ParkingLot lot, SlotBitmaps bitmaps) {
+        this.lot = lot;
+        this.bitmaps = bitmaps;
+    }
+
+    // Cars in any of these rows
+    public CarQuery rows(String... rows) {
+        this.rows = rows.clone();
+        return this;
+    }
+
+    public CarQuery size(String size) {
+        this.size = size;
+        return this;
+    }
+
+    public CarQuery handicap(boolean handicap) {
+        this.handicap = handicap;
+        return this;
+    }
+
+    public CarQuery color(String color) {
+        this.color = color;
+        return this;
+    }
+
+    public CarQuery make(String make) {
+        this.make = make;
+        return this;
+    }
+
+    // Cars that arrived strictly within this long before now, by the lot's clock
+    public CarQuery parkedWithin(Duration duration) {
+        this.parkedWithin = duration;
+        return this;
+    }
+
+    // Number of matches. Without an arrival condition this is a popcount of the combined bitmap,
+    // exact whenever no car is entering or leaving at the same moment.
+    public int count() {
+        if (parkedWithin != null) {
+            return matches().size();
+        }
+        AtomicLongArray[][] clauses = clauses();
+        if (clauses == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int word = 0; word < bitmaps.words(); word++) {
+            count += Long.bitCount(evaluate(clauses, word));
+        }
+        return count;
+    }
+
+    // Each matching car with its spot
+    public Map<Car, String> spots() {
+        List<ParkedCar> matches = matches();
+        Map<Car, String> spots = new HashMap<>(Math.max(4, matches.size() * 4 / 3 + 1));
+        for (ParkedCar parked : matches) {
+            spots.put(parked.getCar(), ParkingLot.spotName(parked.getSlot()));
+        }
+        return spots;
+    }
+
+    // Each matching car with its ticket
+    public Map<Car, Ticket> tickets() {
+        List<ParkedCar> matches = matches();
+        Map<Car, Ticket> tickets = new HashMap<>(Math.max(4, matches.size() * 4 / 3 + 1));
+        for (ParkedCar parked : matches) {
+            tickets.put(parked.getCar(), parked.getTicket());
+        }
+        return tickets;
+    }
+
+    List<ParkedCar> matches() {
+        LocalDateTime cutoff = parkedWithin == null ? null : lot.now().minus(parkedWithin);
+        long arrivedAfter = cutoff == null ? Long.MIN_VALUE : ParkedCar.arrivalNanosOf(cutoff);
+        List<ParkedCar> matches = new ArrayList<>();
+        AtomicLongArray[][] clauses = clauses();
+        if (clauses == null) {
+            return matches;
+        }
+        if (clauses.length == 1 && parkedWithin != null) {
+            // only the arrival condition: walk the recent arrivals rather than the whole lot
+            for (ParkedCar parked : lot.arrivedAfter(cutoff)) {
+                if (stillMatches(parked)) {
+                    matches.add(parked);
+                }
+            }
+            return matches;
+        }
+        for (int word = 0; word < bitmaps.words(); word++) {
+            long bits = evaluate(clauses, word);
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                ParkedCar parked = bitmaps.carAt(slot);
+                if (parked != null && parked.getArrivalNanos() > arrivedAfter && stillMatches(parked)) {
+                    matches.add(parked);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Clauses are ANDed, the bitmaps within a clause ORed; null when some condition can't match.
+    // The first clause is always the occupied bitmap.
+    private AtomicLongArray[][] clauses() {
+        List<AtomicLongArray[]> clauses = new ArrayList<>();
+        clauses.add(new AtomicLongArray[] {bitmaps.occupied()});
+        if (rows != null) {
+            List<AtomicLongArray> anyRow = new ArrayList<>();
+            for (String row : rows) {
+                AtomicLongArray bitmap = bitmaps.find(SlotBitmaps.ROW, row);
+                if (bitmap != null) {
+                    anyRow.add(bitmap);
+                }
+            }
+            if (anyRow.isEmpty()) {
+                return null;
+            }
+            clauses.add(anyRow.toArray(new AtomicLongArray[0]));
+        }
+        String[] values = {size, color, make};
+        int[] attributes = {SlotBitmaps.SIZE, SlotBitmaps.COLOR, SlotBitmaps.MAKE};
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                AtomicLongArray bitmap = bitmaps.find(attributes[i], values[i]);
+                if (bitmap == null) {
+                    return null;
+                }
+                clauses.add(new AtomicLongArray[] {bitmap});
+            }
+        }
+        if (Boolean.TRUE.equals(handicap)) {
+            clauses.add(new AtomicLongArray[] {bitmaps.handicap()});
+        }
+        return clauses.toArray(new AtomicLongArray[0][]);
+    }
+
+    private long evaluate(AtomicLongArray[][] clauses, int word) {
+        long bits = -1L;
+        for (AtomicLongArray[] clause : clauses) {
+            long any = 0;
+            for (AtomicLongArray bitmap : clause) {
+                any |= bitmap.get(word);
+            }
+            bits &= any;
+            if (bits == 0) {
+                return 0;
+            }
+        }
+        if (Boolean.FALSE.equals(handicap)) {
+            bits &= ~bitmaps.handicap().get(word);
+        }
+        return bits;
+    }
+
+    // The bitmaps can lag a car entering or leaving; the car itself has the final say
+    private boolean stillMatches(ParkedCar parked) {
+        Car car = parked.getCar();
+        if (handicap != null && car.isHandicap() != handicap) {
+            return false;
+        }
+        if (!matches(size, car.getSize()) || !matches(color, car.getColor()) || !matches(make, car.getMake())) {
+            return false;
+        }
+        if (rows == null) {
+            return true;
+        }
+        String row = SlotBitmaps.normalize(parked.getTicket().getParkingRow());
+        for (String wanted : rows) {
+            if (SlotBitmaps.normalize(wanted).equals(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String wanted, String actual) {
+        return wanted == null || SlotBitmaps.normalize(wanted).equals(SlotBitmaps.normalize(actual));
+    }
+}
@@ -0,0 +1,396 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+// Compact storage: one row per slot across primitive columns instead of a Car, a Ticket, a
+// LocalDateTime and their Strings per parked car. Color, make, model, size, row and attendant are
+// dictionary-encoded, arrival times are epoch millis and ticket ids from SequenceTicketIdGenerator
+// are kept as longs. getCar()/getTicket() on a handle build views from the row; ticket checks and
+// size lookups, which every findCar, unpark and calculateCharge makes, read the columns directly.
+//
+// The indexes hold slot numbers rather than objects: plates go in open-addressing int tables, and
+// each color, make and model has a list of slots with every slot's place in it kept in a column,
+// so registering a car allocates nothing. Arrival times have no index of their own; arrivedAfter
+// scans the lot's slots. The only object per car is its handle, which the lot's carsBySlot holds.
+//
+// A row is written and read under one of 64 stripe locks. When a car leaves, its handle keeps a
+// copy of the car and ticket before the row is cleared, so handles still held by queries or frozen
+// snapshots never see the next car's data.
+class ColumnarParkedCarStore implements ParkedCarStore {
+    private static final int STRIPES = 64;
+
+    private final Object[] stripes = new Object[STRIPES];
+    private final StringDictionary dictionary = new StringDictionary();
+    private final IntFunction<String> spotNames;
+    private final AtomicReferenceArray<ParkedCar> carsBySlot; // the lot's, not a copy
+    private final String[] plates;
+    private final int[] colors;
+    private final int[] makes;
+    private final int[] models;
+    private final int[] sizes;
+    private final int[] rows;
+    private final int[] attendants;
+    private final boolean[] handicap;
+    private final long[] arrivalMillis;
+    private final long[] ticketIds; // -1 when the id isn't a SequenceTicketIdGenerator id
+    private final Map<Integer, String> otherTicketIds = new ConcurrentHashMap<>();
+
+    private final PlateTable[] plateTables = new PlateTable[STRIPES]; // by plate hash
+    private final Map<Car, ParkedCar> carsWithoutPlates = new ConcurrentHashMap<>();
+    private final List<Map<String, SlotList>> slotsByValue = new ArrayList<>(3); // by COLOR, MAKE, MODEL
+    private final int[][] placeInList; // [attribute][slot], where the slot sits in its value's list
+
+    // Slots of registered cars by plate, linear probing; each entry is slot + 1, 0 when empty
+    private static final class PlateTable {
+        int[] entries;
+        int size;
+
+        PlateTable(int expected) {
+            int length = 16;
+            while (length * 3 < expected * 4) {
+                length <<= 1;
+            }
+            entries = new int[length];
+        }
+    }
+
+    private static final class SlotList {
+        int[] slots = new int[4];
+        int size;
+    }
+
+    private final class Handle extends ParkedCar {
+        Handle(int slot, long arrivalNanos) {
+            super(slot, arrivalNanos);
+        }
+
+        @Override
+        Car getCar() {
+            synchronized (stripeOf(getSlot())) {
+                return car != null ? car : carAt(getSlot());
+            }
+        }
+
+        @Override
+        Ticket getTicket() {
+            synchronized (stripeOf(getSlot())) {
+                return ticket != null ? ticket : ticketAt(getSlot());
+            }
+        }
+
+        @Override
+        boolean isTicket(Ticket other) {
+            synchronized (stripeOf(getSlot())) {
+                return ticket != null ? ticket.equals(other) : isTicketAt(getSlot(), other);
+            }
+        }
+
+        @Override
+        String getSize() {
+            synchronized (stripeOf(getSlot())) {
+                return car != null ? car.getSize() : dictionary.decode(sizes[getSlot()]);
+            }
+        }
+    }
+
+    ColumnarParkedCarStore(AtomicReferenceArray<ParkedCar> carsBySlot, IntFunction<String> spotNames) {
+        this.carsBySlot = carsBySlot;
+        this.spotNames = spotNames;
+        int capacity = carsBySlot.length();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+            plateTables[i] = new PlateTable(capacity / STRIPES + 1);
+        }
+        plates = new String[capacity];
+        colors = new int[capacity];
+        makes = new int[capacity];
+        models = new int[capacity];
+        sizes = new int[capacity];
+        rows = new int[capacity];
+        attendants = new int[capacity];
+        handicap = new boolean[capacity];
+        arrivalMillis = new long[capacity];
+        ticketIds = new long[capacity];
+        for (int i = 0; i < 3; i++) {
+            slotsByValue.add(new ConcurrentHashMap<>());
+        }
+        placeInList = new int[3][capacity];
+    }
+
+    private Object stripeOf(int slot) {
+        return stripes[slot & (STRIPES - 1)];
+    }
+
+    @Override
+    public ParkedCar put(Car car, Ticket ticket, int slot) {
+        LocalDateTime parkedAt = ticket.getParkedAt();
+        long millis = parkedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+        Handle handle = new Handle(slot, ParkedCar.arrivalNanosOf(parkedAt));
+        synchronized (stripeOf(slot)) {
+            plates[slot] = car.getLicensePlate();
+            colors[slot] = dictionary.encode(car.getColor());
+            makes[slot] = dictionary.encode(car.getMake());
+            models[slot] = dictionary.encode(car.getModel());
+            sizes[slot] = dictionary.encode(car.getSize());
+            handicap[slot] = car.isHandicap();
+            rows[slot] = dictionary.encode(ticket.getParkingRow());
+            attendants[slot] = dictionary.encode(ticket.getAttendantName());
+            arrivalMillis[slot] = millis;
+            long id = SequenceTicketIdGenerator.decode(ticket.getTicketId());
+            ticketIds[slot] = id;
+            if (id < 0) {
+                otherTicketIds.put(slot, ticket.getTicketId());
+            }
+        }
+        return handle;
+    }
+
+    @Override
+    public boolean register(ParkedCar parked, Car car) {
+        int slot = parked.getSlot();
+        String plate = car.getLicensePlate();
+        if (plate == null) {
+            if (carsWithoutPlates.putIfAbsent(car, parked) != null) {
+                return false;
+            }
+        } else {
+            int hash = hash(plate);
+            PlateTable table = plateTables[hash & (STRIPES - 1)];
+            synchronized (table) {
+                if (slotOf(table, plate, hash) >= 0) {
+                    return false;
+                }
+                insert(table, slot, hash);
+            }
+        }
+        addToList(COLOR, car.getColor(), slot);
+        addToList(MAKE, car.getMake(), slot);
+        addToList(MODEL, car.getModel(), slot);
+        return true;
+    }
+
+    @Override
+    public void remove(ParkedCar parked) {
+        int slot = parked.getSlot();
+        Car car;
+        synchronized (stripeOf(slot)) {
+            if (parked.car != null) {
+                return; // already removed
+            }
+            parked.car = car = carAt(slot);
+            parked.ticket = ticketAt(slot);
+        }
+
+        boolean registered;
+        String plate = car.getLicensePlate();
+        if (plate == null) {
+            registered = carsWithoutPlates.remove(car, parked);
+        } else {
+            int hash = hash(plate);
+            PlateTable table = plateTables[hash & (STRIPES - 1)];
+            synchronized (table) {
+                registered = slotOf(table, plate, hash) == slot;
+                if (registered) {
+                    delete(table, slot, hash);
+                }
+            }
+        }
+        if (registered) {
+            removeFromList(COLOR, car.getColor(), slot);
+            removeFromList(MAKE, car.getMake(), slot);
+            removeFromList(MODEL, car.getModel(), slot);
+        }
+
+        synchronized (stripeOf(slot)) {
+            plates[slot] = null; // only once no plate table can compare against it
+            if (ticketIds[slot] < 0) {
+                otherTicketIds.remove(slot);
+            }
+        }
+    }
+
+    @Override
+    public ParkedCar find(Car car) {
+        String plate = car.getLicensePlate();
+        if (plate == null) {
+            return carsWithoutPlates.get(car);
+        }
+        int hash = hash(plate);
+        PlateTable table = plateTables[hash & (STRIPES - 1)];
+        int slot;
+        synchronized (table) {
+            slot = slotOf(table, plate, hash);
+        }
+        return slot < 0 ? null : carsBySlot.get(slot);
+    }
+
+    @Override
+    public Collection<ParkedCar> findBy(int attribute, String value) {
+        SlotList list = value == null ? null : slotsByValue.get(attribute).get(SlotBitmaps.normalize(value));
+        if (list == null) {
+            return Collections.emptyList();
+        }
+        int[] slots;
+        synchronized (list) {
+            slots = Arrays.copyOf(list.slots, list.size);
+        }
+        List<ParkedCar> found = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            ParkedCar parked = carsBySlot.get(slot);
+            if (parked != null) {
+                found.add(parked);
+            }
+        }
+        return found;
+    }
+
+    // A scan of the lot's slots: an arrival index would cost an object per car
+    @Override
+    public Collection<ParkedCar> arrivedAfter(LocalDateTime cutoff) {
+        long after = ParkedCar.arrivalNanosOf(cutoff);
+        List<ParkedCar> found = new ArrayList<>();
+        for (int slot = 0; slot < carsBySlot.length(); slot++) {
+            ParkedCar parked = carsBySlot.get(slot);
+            if (parked != null && parked.getArrivalNanos() > after) {
+                found.add(parked);
+            }
+        }
+        return found;
+    }
+
+    private static int hash(String plate) {
+        int h = plate.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Where the probe for a plate starts; the low bits picked the table
+    private static int home(PlateTable table, int hash) {
+        return (hash >>> 6) & (table.entries.length - 1);
+    }
+
+    // The slot registered under plate, or -1; the caller holds the table. Plates of registered
+    // slots were written before they were inserted under the same lock, so they are safe to read.
+    private int slotOf(PlateTable table, String plate, int hash) {
+        int mask = table.entries.length - 1;
+        for (int i = home(table, hash); ; i = (i + 1) & mask) {
+            int entry = table.entries[i];
+            if (entry == 0) {
+                return -1;
+            }
+            if (plate.equals(plates[entry - 1])) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insert(PlateTable table, int slot, int hash) {
+        if ((table.size + 1) * 4 > table.entries.length * 3) {
+            int[] old = table.entries;
+            table.entries = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(table, entry, hash(plates[entry - 1]));
+                }
+            }
+        }
+        place(table, slot + 1, hash);
+        table.size++;
+    }
+
+    private static void place(PlateTable table, int entry, int hash) {
+        int mask = table.entries.length - 1;
+        int i = home(table, hash);
+        while (table.entries[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table.entries[i] = entry;
+    }
+
+    // Backward-shift deletion, so probes never need tombstones
+    private void delete(PlateTable table, int slot, int hash) {
+        int mask = table.entries.length - 1;
+        int hole = home(table, hash);
+        while (table.entries[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; table.entries[i] != 0; i = (i + 1) & mask) {
+            int wanted = home(table, hash(plates[table.entries[i] - 1]));
+            // move the entry back into the hole unless its home lies cyclically in (hole, i]
+            if (((i - wanted) & mask) >= ((i - hole) & mask)) {
+                table.entries[hole] = table.entries[i];
+                hole = i;
+            }
+        }
+        table.entries[hole] = 0;
+        table.size--;
+    }
+
+    private void addToList(int attribute, String value, int slot) {
+        if (value == null) {
+            return;
+        }
+        SlotList list = slotsByValue.get(attribute).computeIfAbsent(SlotBitmaps.normalize(value), key -> new SlotList());
+        synchronized (list) {
+            if (list.size == list.slots.length) {
+                list.slots = Arrays.copyOf(list.slots, list.size * 2);
+            }
+            placeInList[attribute][slot] = list.size;
+            list.slots[list.size++] = slot;
+        }
+    }
+
+    // Moves the last slot into the leaving slot's place
+    private void removeFromList(int attribute, String value, int slot) {
+        if (value == null) {
+            return;
+        }
+        SlotList list = slotsByValue.get(attribute).get(SlotBitmaps.normalize(value));
+        synchronized (list) {
+            int place = placeInList[attribute][slot];
+            int last = list.slots[--list.size];
+            list.slots[place] = last;
+            placeInList[attribute][last] = place;
+        }
+    }
+
+    private Car carAt(int slot) {
+        return new Car(plates[slot], dictionary.decode(colors[slot]), dictionary.decode(makes[slot]),
+                dictionary.decode(models[slot]), dictionary.decode(sizes[slot]), handicap[slot]);
+    }
+
+    // Ticket.equals against the row, without building the ticket
+    private boolean isTicketAt(int slot, Ticket other) {
+        if (other == null || other.getTicketId() == null || other.getParkedAt() == null
+                || ParkingLot.slotNamed(other.getParkingSpot()) != slot
+                || !Character.isDigit(other.getParkingSpot().charAt(5)) || other.getParkingSpot().charAt(5) == '0') {
+            return false; // "Spot_+7" and "Spot_07" parse to the slot but aren't its name
+        }
+        long id = ticketIds[slot];
+        if (id >= 0 ? SequenceTicketIdGenerator.decode(other.getTicketId()) != id
+                : !other.getTicketId().equals(otherTicketIds.get(slot))) {
+            return false;
+        }
+        LocalDateTime parkedAt = other.getParkedAt();
+        return parkedAt.getNano() % 1_000_000 == 0
+                && parkedAt.toInstant(ZoneOffset.UTC).toEpochMilli() == arrivalMillis[slot];
+    }
+
+    private Ticket ticketAt(int slot) {
+        long id = ticketIds[slot];
+        String ticketId = id >= 0 ? SequenceTicketIdGenerator.encode(id) : otherTicketIds.get(slot);
+        long millis = arrivalMillis[slot];
+        LocalDateTime parkedAt = LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        return new Ticket(ticketId, spotNames.apply(slot), parkedAt, dictionary.decode(attendants[slot]),
+                dictionary.decode(rows[slot]));
+    }
+}
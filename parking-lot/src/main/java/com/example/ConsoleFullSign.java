@@ -0,0 +1,14 @@
+package com.example;
+
+// The lot's "Full" sign, simulated on stdout. Register it like any other SecurityObserver so sign
+// updates go through the same dispatcher instead of printing on the parking thread.
+public class ConsoleFullSign implements SecurityObserver {
+    @Override
+    public void notify(boolean isFull) {
+        if (isFull) {
+            System.out.println("Parking Lot is Full. Full sign displayed.");
+        } else {
+            System.out.println("Parking Lot is not full anymore. Full sign removed.");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example;
+import java.util.concurrent.atomic.LongAdder;
+
+// A lock-free count; increments from many threads don't contend on one cache line
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Notifies observers right away on the thread that changed the lot; the default for ParkingLot.
+// Deliveries for a lot take its lock and report the sign as it is then, so a publish that was
+// overtaken by a later one is dropped instead of leaving observers on a stale state.
+public class DirectSecurityEventDispatcher implements SecurityEventDispatcher {
+    private final Map<ParkingLot, Boolean> delivered = new ConcurrentHashMap<>(); // absent: not full
+
+    @Override
+    public void publish(ParkingLot lot, boolean isFull, List<SecurityObserver> observers) {
+        synchronized (lot) {
+            boolean now = lot.isFullSignDisplayed();
+            Boolean before = delivered.put(lot, now);
+            if ((before != null && before) == now) {
+                return;
+            }
+            for (SecurityObserver observer : observers) {
+                observer.notify(now);
+            }
+        }
+    }
+
+    @Override
+    public void attach(ParkingLot lot) {
+        delivered.put(lot, lot.isFullSignDisplayed());
+    }
+}
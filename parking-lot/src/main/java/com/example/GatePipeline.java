@@ -0,0 +1,222 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Takes bursts of gate events (arrivals, departures, lookups) off the gates' threads. Each lot is
+// owned by one lane: a bounded queue drained in batches by a single thread, so a lot only ever
+// sees one writer from the pipeline and gates never wait on each other's lots. Consecutive
+// arrivals for a lot in a batch are parked with one parkAll, which also updates the full sign.
+// Departures and lookups are routed to the ticket's lot by a ParkingFacility over the same lots.
+// Every event gets a future that completes when its lot has handled it, sign included.
+//
+// When a lane's queue is full, BLOCK makes the gate wait for room and REJECT fails the event's
+// future at once with RejectedExecutionException. Gates enqueue under the read side of a lock and
+// close() stops the pipeline under the write side, so every accepted event is queued before the
+// lanes start draining for the last time.
+public class GatePipeline implements AutoCloseable {
+
+    public enum Backpressure { BLOCK, REJECT }
+
+    private enum Kind { ARRIVE, DEPART, FIND }
+
+    private static final class GateEvent {
+        final Kind kind;
+        final ParkingLot lot;
+        final Car car;
+        final Ticket ticket;
+        final CompletableFuture<Object> done = new CompletableFuture<>();
+
+        GateEvent(Kind kind, ParkingLot lot, Car car, Ticket ticket) {
+            this.kind = kind;
+            this.lot = lot;
+            this.car = car;
+            this.ticket = ticket;
+        }
+    }
+
+    private final class Lane {
+        final BlockingQueue<GateEvent> queue;
+        final Thread worker;
+
+        Lane(int queueCapacity, int number) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            worker = new Thread(this::drain, "gate-pipeline-" + number);
+            worker.setDaemon(true);
+        }
+
+        private void drain() {
+            List<GateEvent> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    GateEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    running = false;
+                    continue;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private final Map<ParkingLot, Lane> lanes = new IdentityHashMap<>(); // fixed once constructed
+    private final List<Lane> allLanes = new ArrayList<>();
+    private final ParkingFacility facility;
+    private final Backpressure backpressure;
+    private final int batchSize;
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    // Lots are spread over up to `threads` lanes; a lane may own several lots but a lot has one lane
+    public GatePipeline(List<ParkingLot> parkingLots, int threads, int queueCapacity, int batchSize, Backpressure backpressure) {
+        this.backpressure = backpressure;
+        this.batchSize = batchSize;
+        int laneCount = Math.max(1, Math.min(threads, parkingLots.size()));
+        for (int i = 0; i < laneCount; i++) {
+            allLanes.add(new Lane(queueCapacity, i));
+        }
+        List<ParkingLot> served = new ArrayList<>();
+        for (int i = 0; i < parkingLots.size(); i++) {
+            ParkingLot lot = parkingLots.get(i);
+            if (lanes.putIfAbsent(lot, allLanes.get(i % laneCount)) == null) {
+                served.add(lot);
+            }
+        }
+        this.facility = new ParkingFacility("gate-pipeline", served);
+        for (Lane lane : allLanes) {
+            lane.worker.start();
+        }
+    }
+
+    // Completes with the ticket, or with null if the lot was full
+    public CompletableFuture<Ticket> arrive(ParkingLot lot, Car car) {
+        if (car == null) {
+            throw new IllegalArgumentException("Car cannot be null");
+        }
+        return submit(new GateEvent(Kind.ARRIVE, lot, car, null)).thenApply(Ticket.class::cast);
+    }
+
+    // Completes with the car, or with null for tickets that aren't open in any of the lots
+    public CompletableFuture<Car> depart(Ticket ticket) {
+        ParkingLot lot = facility.lotOf(ticket);
+        if (lot == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(new GateEvent(Kind.DEPART, lot, null, ticket)).thenApply(Car.class::cast);
+    }
+
+    // Completes with the car's spot once every event queued before it for that lot is handled
+    public CompletableFuture<String> findCar(Ticket ticket) {
+        ParkingLot lot = facility.lotOf(ticket);
+        if (lot == null) {
+            return CompletableFuture.completedFuture("Car not found");
+        }
+        return submit(new GateEvent(Kind.FIND, lot, null, ticket)).thenApply(String.class::cast);
+    }
+
+    private CompletableFuture<Object> submit(GateEvent event) {
+        Lane lane = lanes.get(event.lot);
+        if (lane == null) {
+            throw new IllegalArgumentException("Lot is not served by this pipeline");
+        }
+        // close() can't stop the lanes between the running check and the enqueue; a blocked put
+        // still gets its room because the lanes keep draining until close() takes the write lock
+        closing.readLock().lock();
+        try {
+            if (!running) {
+                event.done.completeExceptionally(new RejectedExecutionException("Pipeline is closed"));
+            } else if (backpressure == Backpressure.BLOCK) {
+                try {
+                    lane.queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    event.done.completeExceptionally(e);
+                }
+            } else if (!lane.queue.offer(event)) {
+                event.done.completeExceptionally(new RejectedExecutionException("Gate queue is full"));
+            }
+        } finally {
+            closing.readLock().unlock();
+        }
+        return event.done;
+    }
+
+    private void process(List<GateEvent> batch) {
+        int i = 0;
+        while (i < batch.size()) {
+            GateEvent event = batch.get(i);
+            if (event.kind == Kind.FIND) {
+                try {
+                    event.done.complete(event.lot.findCar(event.ticket));
+                } catch (RuntimeException e) {
+                    event.done.completeExceptionally(e);
+                }
+                i++;
+                continue;
+            }
+            if (event.kind == Kind.DEPART) {
+                try {
+                    Car car = event.lot.unparkCar(event.ticket);
+                    if (car != null) {
+                        event.lot.updateFullSign(); // before the gate hears the car has left
+                    }
+                    event.done.complete(car);
+                } catch (RuntimeException e) {
+                    event.done.completeExceptionally(e);
+                }
+                i++;
+                continue;
+            }
+
+            int end = i;
+            List<Car> cars = new ArrayList<>();
+            while (end < batch.size() && batch.get(end).kind == Kind.ARRIVE && batch.get(end).lot == event.lot) {
+                cars.add(batch.get(end++).car);
+            }
+            try {
+                BatchResult<Car, Ticket> parked = event.lot.parkAll(cars);
+                for (int j = i; j < end; j++) {
+                    batch.get(j).done.complete(parked.getSucceeded().get(batch.get(j).car));
+                }
+            } catch (RuntimeException e) {
+                for (int j = i; j < end; j++) {
+                    batch.get(j).done.completeExceptionally(e);
+                }
+            }
+            i = end;
+        }
+    }
+
+    // Handles everything already queued, then stops the lanes; later events are rejected. If the
+    // caller is interrupted while waiting, the lanes still finish what was queued in the background.
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            for (Lane lane : allLanes) {
+                lane.worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// In-process OccupancyTransport for tests and single-process setups: a batch is handed to every
+// other node's receiver on the publishing thread. Nodes can be cut off to try out partitions;
+// batches to or from a cut-off node are dropped, as a network would.
+public class LoopbackTransport implements OccupancyTransport {
+    private final Map<String, Consumer<List<OccupancyUpdate>>> receivers = new ConcurrentHashMap<>();
+    private final Set<String> disconnected = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void publish(String fromNodeId, List<OccupancyUpdate> batch) {
+        if (disconnected.contains(fromNodeId)) {
+            return;
+        }
+        receivers.forEach((nodeId, receiver) -> {
+            if (!nodeId.equals(fromNodeId) && !disconnected.contains(nodeId)) {
+                receiver.accept(batch);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<List<OccupancyUpdate>> receiver) {
+        receivers.put(nodeId, receiver);
+    }
+
+    @Override
+    public void unsubscribe(String nodeId) {
+        receivers.remove(nodeId);
+    }
+
+    public void disconnect(String nodeId) {
+        disconnected.add(nodeId);
+    }
+
+    public void reconnect(String nodeId) {
+        disconnected.remove(nodeId);
+    }
+}
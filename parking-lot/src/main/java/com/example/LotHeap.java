@@ -0,0 +1,90 @@
+package com.example;
+
+// Indexed binary min-heap over lot positions 0..n-1, ordered by an int key and then by position,
+// so ties go to the lot that comes first in the attendant's list. Changing a key is O(log n).
+class LotHeap {
+    private final int[] heap;      // heap slot -> lot position
+    private final int[] heapIndex; // lot position -> heap slot
+    private final int[] keys;      // lot position -> key
+
+    LotHeap(int[] initialKeys) {
+        int size = initialKeys.length;
+        heap = new int[size];
+        heapIndex = new int[size];
+        keys = initialKeys.clone();
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            heapIndex[i] = i;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    boolean isEmpty() {
+        return heap.length == 0;
+    }
+
+    int peek() {
+        return heap.length == 0 ? -1 : heap[0];
+    }
+
+    int peekKey() {
+        return keys[heap[0]];
+    }
+
+    void update(int position, int key) {
+        int old = keys[position];
+        keys[position] = key;
+        if (key < old) {
+            siftUp(heapIndex[position]);
+        } else if (key > old) {
+            siftDown(heapIndex[position]);
+        }
+    }
+
+    private boolean less(int a, int b) {
+        int lotA = heap[a];
+        int lotB = heap[b];
+        return keys[lotA] < keys[lotB] || (keys[lotA] == keys[lotB] && lotA < lotB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heap.length && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < heap.length && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int lotA = heap[a];
+        int lotB = heap[b];
+        heap[a] = lotB;
+        heap[b] = lotA;
+        heapIndex[lotB] = a;
+        heapIndex[lotA] = b;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example;
+
+// A lot's counters and histograms, looked up once when metrics are enabled so the hot paths only
+// touch fields. Names are "lot.<name>.<metric>".
+final class LotMetrics {
+    final Counter parked;
+    final Counter unparked;
+    final Counter rejected;
+    final Counter fullSignTransitions;
+    final LatencyHistogram park;
+    final LatencyHistogram parkAll;
+    final LatencyHistogram unpark;
+    final LatencyHistogram findCar;
+    final LatencyHistogram findByAttribute;
+    final LatencyHistogram findRecent;
+    final LatencyHistogram findSmallHandicap;
+
+    LotMetrics(MetricsRegistry registry, String lotName, ParkingLot lot) {
+        String prefix = "lot." + lotName + ".";
+        parked = registry.counter(prefix + "parked");
+        unparked = registry.counter(prefix + "unparked");
+        rejected = registry.counter(prefix + "rejected");
+        fullSignTransitions = registry.counter(prefix + "full_sign_transitions");
+        park = registry.histogram(prefix + "park_nanos");
+        parkAll = registry.histogram(prefix + "park_all_nanos");
+        unpark = registry.histogram(prefix + "unpark_nanos");
+        findCar = registry.histogram(prefix + "find_car_nanos");
+        findByAttribute = registry.histogram(prefix + "find_by_attribute_nanos");
+        findRecent = registry.histogram(prefix + "find_recent_nanos");
+        findSmallHandicap = registry.histogram(prefix + "find_small_handicap_nanos");
+        registry.gauge(prefix + "occupied", lot::getNumberOfParkedCars);
+        registry.gauge(prefix + "free", lot::getNumberOfFreeSpaces);
+    }
+}
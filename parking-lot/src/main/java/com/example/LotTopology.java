@@ -0,0 +1,52 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.List;
+
+// The layout of a lot: runs of bays, each in a row and a zone and of one BayType, added in order
+// of distance from the entrance. Spots are numbered in the same order, so Spot_1 is the nearest bay
+// and a lower spot number always means a shorter walk. Tickets carry the row of their spot.
+//
+//   new LotTopology()
+//       .addBays("A", "North", BayType.HANDICAP, 4)
+//       .addBays("A", "North", BayType.STANDARD, 40)
+//       .addBays("B", "North", BayType.LARGE, 10)
+public class LotTopology {
+    static final class Run {
+        final String row;
+        final String zone;
+        final BayType type;
+        final int count;
+
+        Run(String row, String zone, BayType type, int count) {
+            this.row = row;
+            this.zone = zone;
+            this.type = type;
+            this.count = count;
+        }
+    }
+
+    private final List<Run> runs = new ArrayList<>();
+    private int capacity;
+
+    public LotTopology addBays(String row, String zone, BayType type, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Bay count cannot be negative");
+        }
+        runs.add(new Run(row, zone, type, count));
+        capacity += count;
+        return this;
+    }
+
+    // A lot with no rows or zones where every bay is standard
+    public static LotTopology uniform(int capacity) {
+        return new LotTopology().addBays(null, null, BayType.STANDARD, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    List<Run> runs() {
+        return new ArrayList<>(runs);
+    }
+}
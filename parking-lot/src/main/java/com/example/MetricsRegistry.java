@@ -0,0 +1,24 @@
+package com.example;
+import java.util.function.LongSupplier;
+
+// Where lots and attendants publish their metrics once enabled; see SimpleMetricsRegistry.
+// Asking twice for the same name returns the same counter or histogram.
+public interface MetricsRegistry {
+    Counter counter(String name);
+
+    LatencyHistogram histogram(String name);
+
+    // Sampled only when scraped
+    void gauge(String name, LongSupplier value);
+
+    // Reports every metric, in name order
+    void scrape(Scraper scraper);
+
+    interface Scraper {
+        void counter(String name, long value);
+
+        void gauge(String name, long value);
+
+        void histogram(String name, LatencyHistogram histogram);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Keeps the Car and Ticket objects themselves, with a hash index per attribute and a skip list by
+// arrival time, so every lookup costs its matches; the default storage
+class ObjectParkedCarStore implements ParkedCarStore {
+    private final Map<Car, ParkedCar> parkedCars = new ConcurrentHashMap<>();
+    private final AttributeIndex[] indexes = {new AttributeIndex(), new AttributeIndex(), new AttributeIndex()};
+    private final NavigableSet<ParkedCar> carsByArrival = new ConcurrentSkipListSet<>(ParkedCar.BY_ARRIVAL);
+
+    @Override
+    public ParkedCar put(Car car, Ticket ticket, int slot) {
+        return new ParkedCar(car, ticket, slot);
+    }
+
+    @Override
+    public boolean register(ParkedCar parked, Car car) {
+        if (parkedCars.putIfAbsent(car, parked) != null) {
+            return false;
+        }
+        indexes[COLOR].add(car.getColor(), parked);
+        indexes[MAKE].add(car.getMake(), parked);
+        indexes[MODEL].add(car.getModel(), parked);
+        carsByArrival.add(parked);
+        return true;
+    }
+
+    @Override
+    public void remove(ParkedCar parked) {
+        Car car = parked.getCar();
+        if (!parkedCars.remove(car, parked)) {
+            return;
+        }
+        indexes[COLOR].remove(car.getColor(), parked);
+        indexes[MAKE].remove(car.getMake(), parked);
+        indexes[MODEL].remove(car.getModel(), parked);
+        carsByArrival.remove(parked);
+    }
+
+    @Override
+    public ParkedCar find(Car car) {
+        return parkedCars.get(car);
+    }
+
+    @Override
+    public Collection<ParkedCar> findBy(int attribute, String value) {
+        return indexes[attribute].find(value);
+    }
+
+    // sorts after every car parked exactly at the cutoff, so the tail holds strictly later arrivals
+    @Override
+    public Collection<ParkedCar> arrivedAfter(LocalDateTime cutoff) {
+        return carsByArrival.tailSet(ParkedCar.arrivedAfter(cutoff), false);
+    }
+}
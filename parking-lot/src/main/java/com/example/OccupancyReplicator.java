@@ -0,0 +1,146 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets several gateway processes share a lot. Each process (node) runs its own ParkingLot over its
+// own partition of the bays, a standing lease, so parking never waits on another node and two
+// nodes can never hand out the same spot. What the nodes share is the occupancy: each node's
+// entry (bays it owns, cars parked, spaces held) is sent to the others through an
+// OccupancyTransport, and a shared lot's getNumberOfFreeSpaces(), getNumberOfParkedCars() and
+// getCapacity() then go by the sum of every node's latest entry.
+//
+// Leases never move, so the converged view is for reports and for choosing between lots, not
+// admission: a car is only parked if this node's own partition has room. isFull() and the full
+// sign go by that partition, so a lot whose sign is off always takes the next car. ParkingAttendants
+// rank shared lots by their converged car counts but only send cars to lots with room here.
+//
+// Parks and unparks only move the lot's own counters. A flusher publishes the lots that changed
+// as one batch every flush interval, however many cars came and went, and every lot's entry now
+// and then so a node that missed a batch catches up. A batch the transport fails to take is
+// counted and sent again at the next flush.
+public class OccupancyReplicator implements AutoCloseable {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+    private static final int REPUBLISH_EVERY = 20; // flushes
+
+    private final String nodeId;
+    private final OccupancyTransport transport;
+    private final long flushIntervalMillis;
+    private final Map<String, SharedOccupancy> lots = new ConcurrentHashMap<>(); // by lot id
+    private final Object flusherWakeUp = new Object();
+    private final Thread flusher;
+    private int flushes; // guarded by this
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile boolean open = true;
+
+    public OccupancyReplicator(String nodeId, OccupancyTransport transport) {
+        this(nodeId, transport, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    // A flush interval of 0 publishes only when flush() is called
+    public OccupancyReplicator(String nodeId, OccupancyTransport transport, long flushIntervalMillis) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.flushIntervalMillis = flushIntervalMillis;
+        transport.subscribe(nodeId, this::receive);
+        if (flushIntervalMillis > 0) {
+            this.flusher = new Thread(this::flushPeriodically, "occupancy-replicator-" + nodeId);
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    // Shares the lot under lotId with every node that shares a lot under the same id. The lot holds
+    // this node's partition of the bays. The partition is announced before anything is registered,
+    // so if the transport throws the lot is left as it was.
+    public synchronized void share(String lotId, ParkingLot lot) {
+        if (lots.containsKey(lotId)) {
+            throw new IllegalStateException("Lot " + lotId + " is already shared by node " + nodeId);
+        }
+        SharedOccupancy shared = new SharedOccupancy(lotId, nodeId, lot);
+        transport.publish(nodeId, Collections.singletonList(shared.nextUpdate(true)));
+        lots.put(lotId, shared);
+        lot.shareOccupancy(shared);
+    }
+
+    // Publishes every lot whose occupancy changed since it was last published
+    public synchronized void flush() {
+        boolean republish = ++flushes % REPUBLISH_EVERY == 0;
+        List<OccupancyUpdate> batch = new ArrayList<>();
+        for (SharedOccupancy shared : lots.values()) {
+            OccupancyUpdate update = shared.nextUpdate(republish);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transport.publish(nodeId, batch);
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            for (OccupancyUpdate update : batch) {
+                lots.get(update.getLotId()).publishFailed();
+            }
+            throw e;
+        }
+    }
+
+    // Flushes whose batch the transport threw on, from the flusher or from flush()
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    private void receive(List<OccupancyUpdate> batch) {
+        for (OccupancyUpdate update : batch) {
+            SharedOccupancy shared = lots.get(update.getLotId());
+            if (shared != null && shared.merge(update)) {
+                shared.getLot().sharedOccupancyChanged();
+            }
+        }
+    }
+
+    private void flushPeriodically() {
+        while (open) {
+            try {
+                synchronized (flusherWakeUp) {
+                    if (open) {
+                        flusherWakeUp.wait(flushIntervalMillis);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // counted by flush; the batch goes out again next interval
+            }
+        }
+    }
+
+    // Publishes what is left and stops replicating; the other nodes keep this node's last entry
+    @Override
+    public void close() {
+        synchronized (flusherWakeUp) {
+            open = false;
+            flusherWakeUp.notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            transport.unsubscribe(nodeId);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Carries batches of OccupancyUpdates between the nodes sharing lots. Delivery may be late, lost
+// or repeated; nodes republish their state now and then, so a lost batch only delays convergence.
+public interface OccupancyTransport {
+    // Sends a batch to every other subscribed node
+    void publish(String fromNodeId, List<OccupancyUpdate> batch);
+
+    void subscribe(String nodeId, Consumer<List<OccupancyUpdate>> receiver);
+
+    void unsubscribe(String nodeId);
+}
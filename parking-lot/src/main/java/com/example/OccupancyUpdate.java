@@ -0,0 +1,57 @@
+package com.example;
+
+// One node's share of a replicated lot: how many spaces it owns, how many cars are parked in them
+// and how many more are held for reservations.
+// Each node is the only writer of its own entries and numbers them, so a receiver keeps the
+// highest sequence per node and can take updates late, twice or out of order.
+public final class OccupancyUpdate {
+    private final String lotId;
+    private final String nodeId;
+    private final long sequence;
+    private final int capacity;
+    private final int parked;
+    private final int held;
+
+    public OccupancyUpdate(String lotId, String nodeId, long sequence, int capacity, int parked, int held) {
+        this.lotId = lotId;
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.capacity = capacity;
+        this.parked = parked;
+        this.held = held;
+    }
+
+    public String getLotId() {
+        return lotId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getParked() {
+        return parked;
+    }
+
+    public int getHeld() {
+        return held;
+    }
+
+    // Parked cars plus held spaces
+    public int getOccupied() {
+        return parked + held;
+    }
+
+    @Override
+    public String toString() {
+        return lotId + "@" + nodeId + "#" + sequence + " " + parked + "+" + held + "/" + capacity;
+    }
+}
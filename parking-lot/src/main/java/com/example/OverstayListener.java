@@ -0,0 +1,6 @@
+package com.example;
+
+// Told when a car has been parked longer than the lot's overstay limit; see ParkingLot.setOverstayAlarm
+public interface OverstayListener {
+    void overstayed(ParkingLot lot, Car car, Ticket ticket);
+}
@@ -0,0 +1,63 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+
+// A car that is currently parked, together with its ticket and the slot it occupies.
+// In compact storage the car and ticket live in ColumnarParkedCarStore and this is only a handle.
+class ParkedCar {
+    // Arrival time first; the slot breaks ties since no two parked cars share a slot
+    static final Comparator<ParkedCar> BY_ARRIVAL =
+            Comparator.comparingLong(ParkedCar::getArrivalNanos)
+                      .thenComparingInt(ParkedCar::getSlot);
+
+    Car car;
+    Ticket ticket;
+    private final int slot;
+    private final long arrivalNanos;
+
+    ParkedCar(Car car, Ticket ticket, int slot) {
+        this(slot, arrivalNanosOf(ticket.getParkedAt()));
+        this.car = car;
+        this.ticket = ticket;
+    }
+
+    ParkedCar(int slot, long arrivalNanos) {
+        this.slot = slot;
+        this.arrivalNanos = arrivalNanos;
+    }
+
+    // Sorts after every car that arrived at or before the given time
+    static ParkedCar arrivedAfter(LocalDateTime time) {
+        return new ParkedCar(Integer.MAX_VALUE, arrivalNanosOf(time));
+    }
+
+    static long arrivalNanosOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    Car getCar() {
+        return car;
+    }
+
+    Ticket getTicket() {
+        return ticket;
+    }
+
+    // Whether ticket is this car's ticket (equal id, spot and arrival time)
+    boolean isTicket(Ticket ticket) {
+        return getTicket().equals(ticket);
+    }
+
+    String getSize() {
+        return getCar().getSize();
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    long getArrivalNanos() {
+        return arrivalNanos;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Where a lot keeps the car and ticket behind each occupied slot, and the indexes that find a
+// parked car by what it is rather than by where it is
+interface ParkedCarStore {
+    int COLOR = 0;
+    int MAKE = 1;
+    int MODEL = 2;
+
+    // Stores the car and ticket for a slot the lot has allocated; nothing can find it until register
+    ParkedCar put(Car car, Ticket ticket, int slot);
+
+    // Makes a car put here findable; false, registering nothing, if an equal car is already parked
+    boolean register(ParkedCar parked, Car car);
+
+    // Unregisters a car put here, if it was registered; its handle keeps its car and ticket
+    void remove(ParkedCar parked);
+
+    // The parked car equal to car, or null
+    ParkedCar find(Car car);
+
+    // Parked cars whose COLOR, MAKE or MODEL is value, ignoring case
+    Collection<ParkedCar> findBy(int attribute, String value);
+
+    // Parked cars that arrived strictly after cutoff
+    Collection<ParkedCar> arrivedAfter(LocalDateTime cutoff);
+}
@@ -0,0 +1,296 @@
+package com.example;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Occupancy, turnover, dwell times and revenue for a set of lots, kept up to date from their park
+// and unpark events so reports never copy or scan a lot. Each lot has a ring of fixed-width time
+// buckets (by the lot's wall clock) holding arrivals, departures, peak and closing occupancy,
+// spots held for reservations and revenue; events older than the ring only count towards the
+// totals. Dwell times go into LatencyHistograms, one per lot and one per car class (size and
+// handicap), so every quantile is within about 3% and memory stays fixed however many cars pass
+// through.
+public class ParkingAnalytics implements ParkingEventListener {
+    private final long bucketMillis;
+    private final int buckets;
+    private final Map<ParkingLot, LotStats> stats = new IdentityHashMap<>(); // read-only once built
+    private final Map<String, LatencyHistogram> dwellByClass = new ConcurrentHashMap<>();
+
+    public ParkingAnalytics(List<ParkingLot> parkingLots, Duration bucketWidth, int buckets) {
+        if (bucketWidth.toMillis() <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        this.bucketMillis = bucketWidth.toMillis();
+        this.buckets = buckets;
+        for (ParkingLot lot : parkingLots) {
+            stats.putIfAbsent(lot, new LotStats(lot.view().size(), lot.getNumberOfHeldSpaces())); // cars already there count as occupancy
+        }
+        for (ParkingLot lot : stats.keySet()) {
+            lot.registerParkingEventListener(this);
+        }
+    }
+
+    // One bucket of a lot's series
+    public static final class Bucket {
+        private final LocalDateTime start;
+        private final int arrivals;
+        private final int departures;
+        private final int peakOccupancy;
+        private final int occupancy;
+        private final int heldSpaces;
+        private final double revenue;
+
+        Bucket(LocalDateTime start, int arrivals, int departures, int peakOccupancy, int occupancy, int heldSpaces, double revenue) {
+            this.start = start;
+            this.arrivals = arrivals;
+            this.departures = departures;
+            this.peakOccupancy = peakOccupancy;
+            this.occupancy = occupancy;
+            this.heldSpaces = heldSpaces;
+            this.revenue = revenue;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public int getArrivals() {
+            return arrivals;
+        }
+
+        public int getDepartures() {
+            return departures;
+        }
+
+        public int getPeakOccupancy() {
+            return peakOccupancy;
+        }
+
+        // Cars parked at the end of the bucket, or now for the current one
+        public int getOccupancy() {
+            return occupancy;
+        }
+
+        // Spots held for reservations at the end of the bucket, or now for the current one
+        public int getHeldSpaces() {
+            return heldSpaces;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+    }
+
+    @Override
+    public void carParked(ParkingLot lot, Car car, Ticket ticket) {
+        LotStats lotStats = stats.get(lot);
+        if (lotStats != null) {
+            lotStats.arrived(bucketOf(ticket.getParkedAt()));
+        }
+    }
+
+    @Override
+    public void carUnparked(ParkingLot lot, Car car, Ticket ticket) {
+        LotStats lotStats = stats.get(lot);
+        if (lotStats == null) {
+            return;
+        }
+        LocalDateTime departure = lot.now();
+        double charge = lot.charge(car.getSize(), ticket.getParkedAt(), departure); // as calculateCharge priced it
+        long dwellMillis = Duration.between(ticket.getParkedAt(), departure).toMillis();
+        lotStats.dwell.record(dwellMillis);
+        dwellByClass.computeIfAbsent(classOf(car.getSize(), car.isHandicap()), key -> new LatencyHistogram()).record(dwellMillis);
+        lotStats.departed(bucketOf(departure), charge);
+    }
+
+    @Override
+    public void holdChanged(ParkingLot lot) {
+        LotStats lotStats = stats.get(lot);
+        if (lotStats != null) {
+            lotStats.heldChanged(bucketOf(lot.now()), lot);
+        }
+    }
+
+    // The lot's buckets, oldest first, up to and including the one now falls in; empty for lots
+    // that aren't watched or haven't seen a car yet
+    public List<Bucket> getOccupancySeries(ParkingLot lot) {
+        LotStats lotStats = stats.get(lot);
+        return lotStats == null ? Collections.emptyList() : lotStats.series(bucketOf(lot.now()));
+    }
+
+    public long getArrivals(ParkingLot lot) {
+        LotStats lotStats = stats.get(lot);
+        return lotStats == null ? 0L : lotStats.arrivals.sum();
+    }
+
+    public long getDepartures(ParkingLot lot) {
+        LotStats lotStats = stats.get(lot);
+        return lotStats == null ? 0L : lotStats.departures.sum();
+    }
+
+    // Departures in the last window per bay, e.g. 3.0 means each bay turned over three times
+    public double getTurnover(ParkingLot lot, Duration window) {
+        int departures = 0;
+        for (Bucket bucket : lastBuckets(lot, window)) {
+            departures += bucket.getDepartures();
+        }
+        return lot.getCapacity() == 0 ? 0.0 : (double) departures / lot.getCapacity();
+    }
+
+    // Charged on departures in the last window, to the bucket; at most the ring's length back
+    public double getRevenue(ParkingLot lot, Duration window) {
+        double revenue = 0.0;
+        for (Bucket bucket : lastBuckets(lot, window)) {
+            revenue += bucket.getRevenue();
+        }
+        return revenue;
+    }
+
+    public double getTotalRevenue(ParkingLot lot) {
+        LotStats lotStats = stats.get(lot);
+        return lotStats == null ? 0.0 : lotStats.revenue.sum();
+    }
+
+    // How long the given percentage (0-100) of cars that left the lot stayed at most
+    public Duration getDwellTime(ParkingLot lot, double percentile) {
+        LotStats lotStats = stats.get(lot);
+        return lotStats == null ? Duration.ZERO : Duration.ofMillis(lotStats.dwell.getValueAtPercentile(percentile));
+    }
+
+    // The same across every watched lot, for cars of one size (case-insensitive) and handicap class
+    public Duration getDwellTime(String size, boolean handicap, double percentile) {
+        LatencyHistogram dwell = dwellByClass.get(classOf(size, handicap));
+        return dwell == null ? Duration.ZERO : Duration.ofMillis(dwell.getValueAtPercentile(percentile));
+    }
+
+    private List<Bucket> lastBuckets(ParkingLot lot, Duration window) {
+        List<Bucket> series = getOccupancySeries(lot);
+        int wanted = (int) Math.min(series.size(), (window.toMillis() + bucketMillis - 1) / bucketMillis);
+        return series.subList(series.size() - wanted, series.size());
+    }
+
+    private static String classOf(String size, boolean handicap) {
+        return (size == null ? "" : size.toLowerCase(Locale.ROOT)) + (handicap ? "/handicap" : "");
+    }
+
+    // Buckets count from the epoch of the lot's local time, so they line up with its wall clock
+    private long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(time.toInstant(ZoneOffset.UTC).toEpochMilli(), bucketMillis);
+    }
+
+    private LocalDateTime startOf(long bucket) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(bucket * bucketMillis, 1000L),
+                (int) Math.floorMod(bucket * bucketMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private final class LotStats {
+        private final int[] arrivalsIn = new int[buckets];
+        private final int[] departuresIn = new int[buckets];
+        private final int[] peakIn = new int[buckets];
+        private final int[] occupancyIn = new int[buckets];
+        private final int[] heldIn = new int[buckets];
+        private final double[] revenueIn = new double[buckets];
+        private long first = Long.MIN_VALUE; // bucket number of the first event seen
+        private long newest = Long.MIN_VALUE; // bucket number of the newest slot in the ring
+        private int occupancy;
+        private int held;
+        final LongAdder arrivals = new LongAdder();
+        final LongAdder departures = new LongAdder();
+        final DoubleAdder revenue = new DoubleAdder();
+        final LatencyHistogram dwell = new LatencyHistogram();
+
+        LotStats(int occupancy, int held) {
+            this.occupancy = occupancy;
+            this.held = held;
+        }
+
+        synchronized void arrived(long bucket) {
+            arrivals.increment();
+            occupancy++;
+            int slot = slotFor(bucket);
+            if (slot >= 0) {
+                arrivalsIn[slot]++;
+            }
+            closeNewest();
+        }
+
+        synchronized void departed(long bucket, double charge) {
+            departures.increment();
+            revenue.add(charge);
+            occupancy--; // briefly -1 if the unpark overtakes its park event on another gate
+            int slot = slotFor(bucket);
+            if (slot >= 0) {
+                departuresIn[slot]++;
+                revenueIn[slot] += charge;
+            }
+            closeNewest();
+        }
+
+        // Read under the lock, so whichever hold change runs last leaves the lot's latest count
+        synchronized void heldChanged(long bucket, ParkingLot lot) {
+            held = lot.getNumberOfHeldSpaces();
+            slotFor(bucket);
+            closeNewest();
+        }
+
+        // Occupancy moves with every event, so it always lands in the newest bucket
+        private void closeNewest() {
+            int slot = (int) Math.floorMod(newest, (long) buckets);
+            occupancyIn[slot] = occupancy;
+            heldIn[slot] = held;
+            peakIn[slot] = Math.max(peakIn[slot], occupancy);
+        }
+
+        // Ring slot of the bucket, rolling the ring forward if it is newer; -1 if it has rolled off
+        private int slotFor(long bucket) {
+            advanceTo(bucket);
+            return bucket <= newest - buckets ? -1 : (int) Math.floorMod(bucket, (long) buckets);
+        }
+
+        private void advanceTo(long bucket) {
+            if (newest == Long.MIN_VALUE) {
+                first = bucket;
+                newest = bucket - 1;
+                occupancyIn[(int) Math.floorMod(newest, (long) buckets)] = occupancy;
+                heldIn[(int) Math.floorMod(newest, (long) buckets)] = held;
+            }
+            if (bucket <= newest) {
+                return;
+            }
+            int carried = occupancyIn[(int) Math.floorMod(newest, (long) buckets)];
+            int carriedHeld = heldIn[(int) Math.floorMod(newest, (long) buckets)];
+            for (long b = Math.max(newest + 1, bucket - buckets + 1); b <= bucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) buckets);
+                arrivalsIn[slot] = 0;
+                departuresIn[slot] = 0;
+                revenueIn[slot] = 0.0;
+                occupancyIn[slot] = carried;
+                heldIn[slot] = carriedHeld;
+                peakIn[slot] = carried;
+            }
+            newest = bucket;
+        }
+
+        synchronized List<Bucket> series(long now) {
+            if (newest == Long.MIN_VALUE) {
+                return Collections.emptyList();
+            }
+            advanceTo(now);
+            List<Bucket> series = new ArrayList<>(buckets);
+            for (long b = Math.max(first, newest - buckets + 1); b <= newest; b++) {
+                int slot = (int) Math.floorMod(b, (long) buckets);
+                series.add(new Bucket(startOf(b), arrivalsIn[slot], departuresIn[slot], peakIn[slot], occupancyIn[slot], heldIn[slot], revenueIn[slot]));
+            }
+            return series;
+        }
+    }
+}
@@ -1,55 +1,235 @@
 package com.example;
-import java.util.List;
-import java.util.UUID;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
-
-public class ParkingAttendant {
-    private List<ParkingLot> parkingLots;
+// Keeps one heap per lot-selection strategy, so choosing a lot costs O(log L) instead of a scan.
+// A car entering or leaving a lot, including at the lot directly, only marks the lot stale with
+// a CAS on its own flag; the next choice re-keys the stale lots under the attendant's lock, so
+// gates parking at different lots never meet on a shared monitor.
+public class ParkingAttendant implements ParkingEventListener {
+    private final List<ParkingLot> parkingLots = new ArrayList<>(); // each lot once, in the order given
     private String name;
+    private final Map<ParkingLot, Integer> positions = new IdentityHashMap<>(); // only written while constructing
+    private final AtomicIntegerArray stale; // 1 while a lot waits in staleLots to be re-keyed
+    private final Queue<Integer> staleLots = new ConcurrentLinkedQueue<>();
+    private LotHeap leastCars;
+    private LotHeap mostFreeSpaces;
+    private LotHeap nearestFreeSpace;
+    private static final int LEAST_CARS = 0;
+    private static final int MOST_FREE = 1;
+    private static final int NEAREST = 2;
+    private static final int NO_LOT = 3;
+    private static final int NO_HANDICAP_BAY = Integer.MAX_VALUE - 1; // nearest-heap key of a lot with only other bays free
+    private static final int NO_BAY = Integer.MAX_VALUE; // heap key of a lot with no bay the car may use
+    private volatile Counter[] selections; // indexed by the strategies above, null until enableMetrics
 
     public ParkingAttendant(String name, List<ParkingLot> parkingLots) {
         this.name = name;
-        this.parkingLots = parkingLots;
+        for (ParkingLot lot : parkingLots) {
+            if (positions.putIfAbsent(lot, this.parkingLots.size()) == null) {
+                this.parkingLots.add(lot); // a lot listed twice would otherwise have two heap keys
+            }
+        }
+        this.stale = new AtomicIntegerArray(this.parkingLots.size());
+        for (ParkingLot lot : this.parkingLots) {
+            lot.registerParkingEventListener(this); // before the keys are read, so no change is missed
+        }
+
+        int[] parked = new int[this.parkingLots.size()];
+        int[] free = new int[this.parkingLots.size()];
+        int[] nearest = new int[this.parkingLots.size()];
+        for (int i = 0; i < this.parkingLots.size(); i++) {
+            ParkingLot lot = this.parkingLots.get(i);
+            parked[i] = leastCarsKey(lot);
+            free[i] = -freeOutsideHandicapBays(lot); // negated, the heaps are min-heaps
+            nearest[i] = nearestForHandicapCars(lot);
+        }
+        leastCars = new LotHeap(parked);
+        mostFreeSpaces = new LotHeap(free);
+        nearestFreeSpace = new LotHeap(nearest);
+    }
+
+    // Counts lot choices per strategy under "attendant.<name>.selected.<strategy>", plus choices
+    // that found no lot with room under "attendant.<name>.selected.none"
+    public void enableMetrics(MetricsRegistry registry) {
+        String prefix = "attendant." + name + ".selected.";
+        selections = new Counter[] {
+                registry.counter(prefix + "least_cars"),
+                registry.counter(prefix + "most_free"),
+                registry.counter(prefix + "nearest"),
+                registry.counter(prefix + "none")};
     }
 
     public Ticket parkCar(Car car, boolean isHandicap, boolean isLarge) {
         ParkingLot selectedLot;
+        int strategy;
 
         if (isHandicap) {
             selectedLot = findLotWithNearestFreeSpace();
+            strategy = NEAREST;
         } else if (isLarge) {
             selectedLot = findLotWithMostFreeSpaces();
+            strategy = MOST_FREE;
         } else {
             selectedLot = findLotWithLeastCars();
+            strategy = LEAST_CARS;
         }
 
+        Counter[] counters = selections;
+        if (counters != null) {
+            counters[selectedLot == null ? NO_LOT : strategy].increment();
+        }
         if (selectedLot != null) {
-            String parkingSpot = "Spot_" + (selectedLot.getNumberOfParkedCars() + 1); // Example parking spot assignment
-            return new Ticket(UUID.randomUUID().toString(), parkingSpot, LocalDateTime.now(), this.name);
+            // the lot's allocator picks the spot, from the kind of bay the lot was chosen for
+            return selectedLot.parkCar(car, this.name, BayType.preferredFor(isHandicap, isLarge));
         }
         return null; // Or handle this case as per the requirement
     }
 
-    private ParkingLot findLotWithLeastCars() {
-        return parkingLots.stream()
-                          .min(Comparator.comparing(ParkingLot::getNumberOfParkedCars))
-                          .orElse(null);
+    // Spreads a batch over the lots the way parkCar would for ordinary cars (fewest cars first),
+    // planning the whole split up front and then handing each lot its share as one batch.
+    public BatchResult<Car, Ticket> parkAll(Collection<Car> cars) {
+        for (Car car : cars) {
+            if (car == null) {
+                throw new IllegalArgumentException("Car cannot be null"); // contains(null) throws on null-hostile collections
+            }
+        }
+
+        PriorityQueue<int[]> lotsByCars = new PriorityQueue<>(
+                Comparator.<int[]>comparingInt(lot -> lot[1]).thenComparingInt(lot -> lot[0]));
+        int[] room = new int[parkingLots.size()];
+        for (int i = 0; i < parkingLots.size(); i++) {
+            ParkingLot lot = parkingLots.get(i);
+            room[i] = freeOutsideHandicapBays(lot); // handicap bays aren't planned for, as in parkCar
+            if (room[i] > 0) {
+                lotsByCars.add(new int[] {i, lot.getNumberOfParkedCars()});
+            }
+        }
+
+        List<List<Car>> shares = new ArrayList<>();
+        for (int i = 0; i < parkingLots.size(); i++) {
+            shares.add(new ArrayList<>());
+        }
+        List<Car> unplaced = new ArrayList<>();
+        for (Car car : cars) {
+            int[] lot = lotsByCars.poll();
+            if (lot == null) {
+                unplaced.add(car);
+                continue;
+            }
+            shares.get(lot[0]).add(car);
+            lot[1]++;
+            if (--room[lot[0]] > 0) {
+                lotsByCars.add(lot);
+            }
+        }
+
+        BatchResult<Car, Ticket> result = new BatchResult<>();
+        for (int i = 0; i < parkingLots.size(); i++) {
+            if (!shares.get(i).isEmpty()) {
+                result.addAll(parkingLots.get(i).parkAll(shares.get(i), this.name));
+            }
+        }
+        for (Car car : unplaced) {
+            result.failed(car);
+        }
+        Counter[] counters = selections;
+        if (counters != null) {
+            counters[LEAST_CARS].add(cars.size() - unplaced.size());
+            counters[NO_LOT].add(unplaced.size());
+        }
+        return result;
     }
 
-    private ParkingLot findLotWithNearestFreeSpace() {
-        return parkingLots.stream()
-                          .filter(ParkingLot::hasNearestFreeSpace)
-                          .findFirst()
-                          .orElse(null);
+    @Override
+    public void carParked(ParkingLot lot, Car car, Ticket ticket) {
+        occupancyChanged(lot);
     }
 
-    private ParkingLot findLotWithMostFreeSpaces() {
-        return parkingLots.stream()
-                          .max(Comparator.comparing(ParkingLot::getNumberOfFreeSpaces))
-                          .orElse(null);
+    @Override
+    public void carUnparked(ParkingLot lot, Car car, Ticket ticket) {
+        occupancyChanged(lot);
     }
-}
 
+    @Override
+    public void occupancyChangedElsewhere(ParkingLot lot) {
+        occupancyChanged(lot);
+    }
 
+    @Override
+    public void holdChanged(ParkingLot lot) {
+        occupancyChanged(lot);
+    }
+
+    // Called on every park and unpark at the lot, so it takes no lock: it queues the lot once
+    // until refreshStaleLots re-keys it. Reading the flag first keeps a busy lot's gates from
+    // contending on the CAS.
+    private void occupancyChanged(ParkingLot lot) {
+        Integer position = positions.get(lot);
+        if (position != null && stale.get(position) == 0 && stale.compareAndSet(position, 0, 1)) {
+            staleLots.add(position);
+        }
+    }
+
+    // The flag is cleared before the lot's counts are read, so a change from then on queues the
+    // lot again and the next choice sees it
+    private void refreshStaleLots() {
+        for (Integer position; (position = staleLots.poll()) != null; ) {
+            stale.set(position, 0);
+            ParkingLot lot = parkingLots.get(position);
+            leastCars.update(position, leastCarsKey(lot));
+            mostFreeSpaces.update(position, -freeOutsideHandicapBays(lot));
+            nearestFreeSpace.update(position, nearestForHandicapCars(lot));
+        }
+    }
+
+    // Lots rank by their number of cars, but only while an ordinary car has a bay to go to
+    private static int leastCarsKey(ParkingLot lot) {
+        return freeOutsideHandicapBays(lot) == 0 ? NO_BAY : lot.getNumberOfParkedCars();
+    }
+
+    // Only handicap cars may use handicap bays. Bay counts are this node's own, so a shared lot
+    // whose partition here is full is skipped however much room the other nodes have.
+    private static int freeOutsideHandicapBays(ParkingLot lot) {
+        return lot.getNumberOfFreeBays(BayType.LARGE) + lot.getNumberOfFreeBays(BayType.STANDARD);
+    }
+
+    // Lots rank by the distance of their nearest free handicap bay; lots without one come after,
+    // in list order, as long as they have any bay free
+    private static int nearestForHandicapCars(ParkingLot lot) {
+        int rank = lot.nearestFreeRank(BayType.HANDICAP);
+        if (rank >= 0) {
+            return rank;
+        }
+        return lot.hasNearestFreeSpace() ? NO_HANDICAP_BAY : NO_BAY;
+    }
+
+    private synchronized ParkingLot findLotWithLeastCars() {
+        refreshStaleLots();
+        if (leastCars.isEmpty() || leastCars.peekKey() == NO_BAY) {
+            return null;
+        }
+        return parkingLots.get(leastCars.peek());
+    }
+
+    private synchronized ParkingLot findLotWithNearestFreeSpace() {
+        refreshStaleLots();
+        if (nearestFreeSpace.isEmpty() || nearestFreeSpace.peekKey() == NO_BAY) {
+            return null;
+        }
+        return parkingLots.get(nearestFreeSpace.peek());
+    }
+
+    private synchronized ParkingLot findLotWithMostFreeSpaces() {
+        refreshStaleLots();
+        return mostFreeSpaces.isEmpty() ? null : parkingLots.get(mostFreeSpaces.peek());
+    }
+}
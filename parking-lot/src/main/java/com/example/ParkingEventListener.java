@@ -0,0 +1,24 @@
+package com.example;
+
+// Told about every car that enters or leaves a ParkingLot, on the thread that parked or unparked it
+public interface ParkingEventListener {
+    // Asked before a car is parked or unparked, on the same thread; throwing turns the park or
+    // unpark down before the lot has changed
+    default void beforeChange(ParkingLot lot) {
+    }
+
+    void carParked(ParkingLot lot, Car car, Ticket ticket);
+
+    void carUnparked(ParkingLot lot, Car car, Ticket ticket);
+
+    // Cars came or went at another node sharing the lot (see OccupancyReplicator), on the thread
+    // that received the update
+    default void occupancyChangedElsewhere(ParkingLot lot) {
+    }
+
+    // A spot was held, or a hold ended by being cancelled, expiring or being parked in; held spots
+    // count as taken, so free counts changed without a car coming or going. On the thread that
+    // held, cancelled or parked, or that ran processTimers for an expiry
+    default void holdChanged(ParkingLot lot) {
+    }
+}
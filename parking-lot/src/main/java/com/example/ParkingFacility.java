@@ -0,0 +1,110 @@
+package com.example;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One front door for several lots: cars are parked through a ParkingAttendant, and every open
+// ticket is routed back to its lot through a concurrent ticket id index, so any exit gate can
+// unpark, find or price a ticket in O(1) however many lots there are. The index follows the lots'
+// events, so cars parked or unparked at a lot directly are routed too.
+//
+// Ticket ids are only unique per TicketIdGenerator, so lots with their own generators can issue the
+// same id. The index keeps every lot an id is open in, and when there is more than one, the lot
+// that really holds the ticket (its spot and arrival time, not just its id) gets it.
+public class ParkingFacility implements ParkingEventListener {
+    private final ParkingAttendant attendant;
+    private final Map<String, ParkingLot[]> lotsByTicketId = new ConcurrentHashMap<>(); // arrays are never modified
+
+    public ParkingFacility(String attendantName, List<ParkingLot> parkingLots) {
+        Set<ParkingLot> lots = Collections.newSetFromMap(new IdentityHashMap<>()); // a lot listed twice is one lot
+        for (ParkingLot lot : parkingLots) {
+            if (lots.add(lot)) {
+                lot.registerParkingEventListener(this);
+            }
+        }
+        // cars already in the lots, e.g. recovered from a journal, before the facility was set up
+        for (ParkingLot lot : lots) {
+            lot.view().tickets().forEach(ticket -> carParked(lot, null, ticket));
+        }
+        this.attendant = new ParkingAttendant(attendantName, parkingLots);
+    }
+
+    public Ticket parkCar(Car car, boolean isHandicap, boolean isLarge) {
+        return attendant.parkCar(car, isHandicap, isLarge);
+    }
+
+    public BatchResult<Car, Ticket> parkAll(Collection<Car> cars) {
+        return attendant.parkAll(cars);
+    }
+
+    public Car unparkCar(Ticket ticket) {
+        ParkingLot lot = lotOf(ticket);
+        return lot == null ? null : lot.unparkCar(ticket);
+    }
+
+    public String findCar(Ticket ticket) {
+        ParkingLot lot = lotOf(ticket);
+        return lot == null ? "Car not found" : lot.findCar(ticket);
+    }
+
+    public double calculateCharge(Ticket ticket) {
+        ParkingLot lot = lotOf(ticket);
+        return lot == null ? 0.0 : lot.calculateCharge(ticket);
+    }
+
+    // The lot holding this ticket's car, or null if the ticket is not open in any of them
+    public ParkingLot lotOf(Ticket ticket) {
+        if (ticket == null || ticket.getTicketId() == null) {
+            return null;
+        }
+        ParkingLot[] lots = lotsByTicketId.get(ticket.getTicketId());
+        if (lots == null) {
+            return null;
+        }
+        if (lots.length == 1) {
+            return lots[0];
+        }
+        for (ParkingLot lot : lots) {
+            if (lot.holds(ticket)) {
+                return lot;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void carParked(ParkingLot lot, Car car, Ticket ticket) {
+        lotsByTicketId.compute(ticket.getTicketId(), (id, lots) -> {
+            if (lots == null) {
+                return new ParkingLot[] {lot};
+            }
+            for (ParkingLot open : lots) {
+                if (open == lot) {
+                    return lots;
+                }
+            }
+            ParkingLot[] more = Arrays.copyOf(lots, lots.length + 1);
+            more[lots.length] = lot;
+            return more;
+        });
+    }
+
+    @Override
+    public void carUnparked(ParkingLot lot, Car car, Ticket ticket) {
+        lotsByTicketId.computeIfPresent(ticket.getTicketId(), (id, lots) -> {
+            ParkingLot[] rest = new ParkingLot[lots.length];
+            int n = 0;
+            for (ParkingLot open : lots) {
+                if (open != lot) {
+                    rest[n++] = open;
+                }
+            }
+            return n == 0 ? null : Arrays.copyOf(rest, n);
+        });
+    }
+}
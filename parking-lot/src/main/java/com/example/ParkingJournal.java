@@ -0,0 +1,347 @@
+package com.example;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Write-ahead journal for one ParkingLot. Every park and unpark is appended as a small binary record
+// to an in-memory buffer (the only work done on the parking thread); a background thread writes the
+// buffer to the file and forces it to disk every flushIntervalMillis, so many records share one
+// fsync. Call sync() where a caller needs its records on disk before carrying on. Once a write
+// fails, every later park or unpark is turned down before it changes the lot, instead of piling up
+// records that will never be written.
+//
+// open() replays an existing journal into an empty lot, restoring every ticket still parked in its
+// old spot, and rewrites the file with just those tickets so the log never outgrows the lot.
+// A torn record at the end of the file (crash mid-write) is detected by its CRC and dropped.
+//
+// File layout: int magic, int version, then records of [int length][payload][int CRC32 of payload].
+public class ParkingJournal implements ParkingEventListener, AutoCloseable {
+    private static final int MAGIC = 0x504C4A4E; // "PLJN"
+    private static final int VERSION = 1;
+    private static final byte PARKED = 1;
+    private static final byte UNPARKED = 2;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+
+    private final FileChannel channel;
+    private final long flushIntervalMillis;
+    private final Object appendLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object flusherWakeUp = new Object(); // not an interrupt: that would close the channel mid-write
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256); // guarded by appendLock
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024); // guarded by appendLock
+    private ByteArrayOutputStream writing = new ByteArrayOutputStream(64 * 1024); // guarded by writeLock
+    private final Thread flusher;
+    private volatile boolean open = true;
+    private volatile IOException failure;
+
+    private ParkingJournal(FileChannel channel, long flushIntervalMillis) {
+        this.channel = channel;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = new Thread(this::flushPeriodically, "parking-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static ParkingJournal open(Path path, ParkingLot lot) throws IOException {
+        return open(path, lot, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public static ParkingJournal open(Path path, ParkingLot lot, long flushIntervalMillis) throws IOException {
+        return open(path, lot, flushIntervalMillis,
+                file -> FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    // Opens the file records are appended to after recovery; tests pass one whose writes fail
+    public interface FileOpener {
+        FileChannel open(Path path) throws IOException;
+    }
+
+    public static ParkingJournal open(Path path, ParkingLot lot, long flushIntervalMillis, FileOpener appendTo) throws IOException {
+        if (lot.localParkedCars() != 0) {
+            throw new IllegalStateException("A journal can only be replayed into an empty lot");
+        }
+
+        Map<String, RecoveredCar> parked = Files.exists(path) ? replay(path) : new LinkedHashMap<>();
+        for (RecoveredCar recovered : parked.values()) {
+            lot.restore(recovered.car, recovered.ticket, recovered.slot);
+        }
+        lot.updateFullSign();
+
+        // Checkpoint: a fresh journal holding only the cars that are still parked
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ParkingJournal writer = new ParkingJournal(out, Long.MAX_VALUE);
+            writer.writeHeader();
+            for (RecoveredCar recovered : parked.values()) {
+                writer.appendParked(recovered.car, recovered.ticket, recovered.slot);
+            }
+            writer.close();
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ParkingJournal journal = new ParkingJournal(appendTo.open(path), flushIntervalMillis);
+        lot.registerParkingEventListener(journal);
+        return journal;
+    }
+
+    // False once a write has failed: nothing appended from then on can reach the disk
+    public boolean isHealthy() {
+        return failure == null;
+    }
+
+    @Override
+    public void beforeChange(ParkingLot lot) {
+        IOException f = failure;
+        if (f != null) {
+            throw new UncheckedIOException("Parking journal stopped after a failed write; this lot is no longer journaled", f);
+        }
+    }
+
+    @Override
+    public void carParked(ParkingLot lot, Car car, Ticket ticket) {
+        appendParked(car, ticket, lot.slotOf(ticket));
+    }
+
+    @Override
+    public void carUnparked(ParkingLot lot, Car car, Ticket ticket) {
+        synchronized (appendLock) {
+            if (!accepting()) {
+                return;
+            }
+            record.reset();
+            try {
+                recordOut.writeByte(UNPARKED);
+                writeString(ticket.getTicketId());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory stream, can't happen
+            }
+            frameRecord();
+        }
+    }
+
+    private void appendParked(Car car, Ticket ticket, int slot) {
+        synchronized (appendLock) {
+            if (!accepting()) {
+                return;
+            }
+            record.reset(); // drop anything left by a record that failed half way
+            try {
+                recordOut.writeByte(PARKED);
+                writeString(ticket.getTicketId());
+                recordOut.writeInt(slot);
+                writeString(ticket.getParkingSpot());
+                recordOut.writeLong(ticket.getParkedAt().toEpochSecond(ZoneOffset.UTC));
+                recordOut.writeInt(ticket.getParkedAt().getNano());
+                writeString(ticket.getAttendantName());
+                writeString(ticket.getParkingRow());
+                writeString(car.getLicensePlate());
+                writeString(car.getColor());
+                writeString(car.getMake());
+                writeString(car.getModel());
+                writeString(car.getSize());
+                recordOut.writeBoolean(car.isHandicap());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory stream, can't happen
+            }
+            frameRecord();
+        }
+    }
+
+    // False once closed, or once a write has failed; beforeChange has turned away every change
+    // since, so only one that was already under way when the write failed goes unrecorded
+    private boolean accepting() {
+        return open && failure == null;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            recordOut.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value too long for the parking journal: " + value.length() + " characters");
+        }
+        recordOut.writeShort(bytes.length);
+        recordOut.write(bytes);
+    }
+
+    // Moves the record being built into the pending buffer with its length and checksum
+    private void frameRecord() {
+        byte[] payload = record.toByteArray();
+        record.reset();
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        writeInt(pending, payload.length);
+        pending.write(payload, 0, payload.length);
+        writeInt(pending, (int) crc.getValue());
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeHeader() {
+        synchronized (appendLock) {
+            writeInt(pending, MAGIC);
+            writeInt(pending, VERSION);
+        }
+    }
+
+    // Writes everything appended so far and forces it to disk
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            synchronized (appendLock) {
+                ByteArrayOutputStream filled = pending;
+                pending = writing;
+                writing = filled;
+            }
+            if (writing.size() > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(writing.toByteArray());
+                writing.reset();
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void flushPeriodically() {
+        while (open) {
+            try {
+                synchronized (flusherWakeUp) {
+                    if (open) {
+                        flusherWakeUp.wait(flushIntervalMillis);
+                    }
+                }
+                sync();
+            } catch (InterruptedException e) {
+                failure = new IOException("Parking journal flusher was interrupted", e);
+                return;
+            } catch (IOException e) {
+                return; // sync() has recorded the failure
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (flusherWakeUp) {
+            open = false;
+            flusherWakeUp.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static final class RecoveredCar {
+        final Car car;
+        final Ticket ticket;
+        final int slot;
+
+        RecoveredCar(Car car, Ticket ticket, int slot) {
+            this.car = car;
+            this.ticket = ticket;
+            this.slot = slot;
+        }
+    }
+
+    // Reads the journal through a read-only mapping and returns the tickets still parked at its end
+    private static Map<String, RecoveredCar> replay(Path path) throws IOException {
+        Map<String, RecoveredCar> parked = new LinkedHashMap<>();
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (in.size() == 0) {
+                return parked;
+            }
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a parking journal");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported parking journal version " + version);
+            }
+
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt();
+                if (length <= 0 || buffer.remaining() < length + 4) {
+                    break; // torn write at the tail
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                crc.reset();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.wrap(bytes);
+                byte type = payload.get();
+                String ticketId = readString(payload);
+                if (type == UNPARKED) {
+                    parked.remove(ticketId);
+                } else if (type == PARKED) {
+                    int slot = payload.getInt();
+                    String spot = readString(payload);
+                    LocalDateTime parkedAt = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+                    String attendantName = readString(payload);
+                    String row = readString(payload);
+                    Car car = new Car(readString(payload), readString(payload), readString(payload), readString(payload),
+                            readString(payload), payload.get() != 0);
+                    parked.put(ticketId, new RecoveredCar(car, new Ticket(ticketId, spot, parkedAt, attendantName, row), slot));
+                } else {
+                    throw new IOException("Unknown parking journal record type " + type);
+                }
+            }
+        }
+        return parked;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,143 +1,814 @@
 package com.example;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.Collection;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
+// Safe to share between gates on different threads: capacity is reserved with a CAS on
+// freeSpaces before a spot is allocated, so the lot can never be oversubscribed.
 public class ParkingLot {
+    // How parked cars and tickets are held: OBJECTS keeps the Car and Ticket handed in and out,
+    // COMPACT keeps them in dictionary-encoded columns and hands out equal copies. COMPACT has no
+    // arrival index, so findCarsParkedWithinLastMinutes scans every slot.
+    public enum StorageMode { OBJECTS, COMPACT }
+
     private int capacity;
-    private Map<Car, Ticket> parkedCars;
-    private boolean isFullSignDisplayed = false;
-    private List<SecurityObserver> securityObservers = new ArrayList<>();
+    private AtomicInteger freeSpaces;
+    private ParkedCarStore parkedCarStore; // finds parked cars by plate, attribute or arrival
+    private AtomicReferenceArray<ParkedCar> carsBySlot; // a ticket names its spot, so this finds its car without a hash index
+    private BayAllocator bays; // free lists per bay type, counters per row and zone
+    private SlotTable slotTable; // the spots, copied on write only once a snapshot has frozen them
+    private SlotBitmaps slotBitmaps; // row, size, handicap, color and make, for CarQuery
+    private Clock clock;
+    private TicketIdGenerator ticketIdGenerator;
+    private TimingWheel timers; // hold expiries and overstay alarms, advanced by processTimers
+    private AtomicInteger heldSpaces = new AtomicInteger();
+    private static final AtomicLong NEXT_RESERVATION_ID = new AtomicLong();
+    private volatile Duration overstayLimit;
+    private volatile OverstayListener overstayListener;
+    private Map<String, TimingWheel.Timeout> overstayAlarms = new ConcurrentHashMap<>(); // by ticket id
+    private volatile Tariff tariff; // null charges RATE_PER_HOUR per completed hour
+    private volatile LotMetrics metrics; // null until enableMetrics, so disabled metrics cost one read
+    private volatile SharedOccupancy shared; // null unless the lot is one node's share, see OccupancyReplicator
+    private static final AtomicInteger NEXT_LOT_ID = new AtomicInteger();
+    private static final Queue<SequenceTicketIdGenerator> FREE_LOT_IDS = new ConcurrentLinkedQueue<>();
+    private static final ReferenceQueue<ParkingLot> RETIRED_LOTS = new ReferenceQueue<>();
+    private static final Set<LotIdLease> LOT_ID_LEASES = ConcurrentHashMap.newKeySet(); // keeps leases reachable
+    private volatile boolean isFullSignDisplayed = false;
+    private List<SecurityObserver> securityObservers = new CopyOnWriteArrayList<>();
+    private volatile SecurityEventDispatcher securityEventDispatcher = new DirectSecurityEventDispatcher();
+    private List<ParkingEventListener> parkingEventListeners = new CopyOnWriteArrayList<>();
     public static final double RATE_PER_HOUR = 5.0;  //rate of parking
 
     public void registerSecurityObserver(SecurityObserver observer) {
         securityObservers.add(observer);
     }
 
+    public void registerParkingEventListener(ParkingEventListener listener) {
+        parkingEventListeners.add(listener);
+    }
+
     public ParkingLot(int capacity) {
+        this(capacity, Clock.systemDefaultZone());
+    }
+
+    public ParkingLot(int capacity, Clock clock) {
+        this(capacity, clock, defaultTicketIdGenerator(clock));
+    }
+
+    public ParkingLot(int capacity, Clock clock, TicketIdGenerator ticketIdGenerator) {
+        this(capacity, clock, ticketIdGenerator, StorageMode.OBJECTS);
+    }
+
+    public ParkingLot(int capacity, Clock clock, TicketIdGenerator ticketIdGenerator, StorageMode storageMode) {
+        this(LotTopology.uniform(capacity), clock, ticketIdGenerator, storageMode);
+    }
+
+    // A lot laid out in rows and zones of standard, large and handicap bays; see LotTopology
+    public ParkingLot(LotTopology topology) {
+        this(topology, Clock.systemDefaultZone());
+    }
+
+    public ParkingLot(LotTopology topology, Clock clock) {
+        this(topology, clock, defaultTicketIdGenerator(clock), StorageMode.OBJECTS);
+    }
+
+    // Each lot made without a TicketIdGenerator leases a lot id, so no two live lots issue the same
+    // ticket id. Once a lot is unreachable its id goes back to the pool with its sequence, so the
+    // next lot to take it carries on above the ids already issued. With every id leased to a live
+    // lot, further lots fall back to random UUIDs.
+    private static TicketIdGenerator defaultTicketIdGenerator(Clock clock) {
+        for (Reference<? extends ParkingLot> ref; (ref = RETIRED_LOTS.poll()) != null; ) {
+            LotIdLease lease = (LotIdLease) ref;
+            LOT_ID_LEASES.remove(lease);
+            FREE_LOT_IDS.add(lease.generator);
+        }
+        SequenceTicketIdGenerator retired = FREE_LOT_IDS.poll();
+        if (retired != null) {
+            return new LeasedTicketIdGenerator(retired, clock);
+        }
+        int lotId = NEXT_LOT_ID.getAndUpdate(id -> Math.min(id + 1, SequenceTicketIdGenerator.MAX_LOT_ID + 1));
+        if (lotId > SequenceTicketIdGenerator.MAX_LOT_ID) {
+            return () -> UUID.randomUUID().toString();
+        }
+        return new LeasedTicketIdGenerator(lotId, clock);
+    }
+
+    private static final class LeasedTicketIdGenerator extends SequenceTicketIdGenerator {
+        LeasedTicketIdGenerator(int lotId, Clock clock) {
+            super(lotId, clock);
+        }
+
+        LeasedTicketIdGenerator(SequenceTicketIdGenerator retired, Clock clock) {
+            super(retired, clock);
+        }
+    }
+
+    // Enqueued once its lot is unreachable; holds the generator, not the lot, so the id can be reused
+    private static final class LotIdLease extends PhantomReference<ParkingLot> {
+        final SequenceTicketIdGenerator generator;
+
+        LotIdLease(ParkingLot lot, SequenceTicketIdGenerator generator) {
+            super(lot, RETIRED_LOTS);
+            this.generator = generator;
+        }
+    }
+
+    public ParkingLot(LotTopology topology, Clock clock, TicketIdGenerator ticketIdGenerator, StorageMode storageMode) {
+        if (ticketIdGenerator instanceof LeasedTicketIdGenerator) {
+            LOT_ID_LEASES.add(new LotIdLease(this, (SequenceTicketIdGenerator) ticketIdGenerator));
+        }
+        int capacity = topology.getCapacity();
         this.capacity = capacity;
-        this.parkedCars = new HashMap<>();
+        this.clock = clock;
+        this.ticketIdGenerator = ticketIdGenerator;
+        this.freeSpaces = new AtomicInteger(capacity);
+        this.carsBySlot = new AtomicReferenceArray<>(capacity);
+        this.bays = new BayAllocator(topology);
+        this.slotTable = new SlotTable(capacity);
+        this.slotBitmaps = new SlotBitmaps(carsBySlot);
+        this.timers = new TimingWheel(1000, 512, clock.millis());
+        this.parkedCarStore = storageMode == StorageMode.COMPACT
+                ? new ColumnarParkedCarStore(carsBySlot, ParkingLot::spotName)
+                : new ObjectParkedCarStore();
+    }
+
+    // Publishes this lot's operation latencies, counts and occupancy to the registry under "lot.<name>."
+    public void enableMetrics(MetricsRegistry registry, String lotName) {
+        metrics = new LotMetrics(registry, lotName, this);
     }
 
     public String findCar(Ticket ticket) {
-        if (ticket == null || !parkedCars.containsValue(ticket)) {
-            return "Car not found";
+        LotMetrics m = metrics;
+        long start = m == null ? 0L : System.nanoTime();
+        String spot = parkedCarFor(ticket) == null ? "Car not found" : ticket.getParkingSpot();
+        if (m != null) {
+            m.findCar.recordSince(start);
         }
+        return spot;
+    }
 
-        return ticket.getParkingSpot();
+    // Ad-hoc combinations of row, size, handicap, color, make and arrival time
+    public CarQuery query() {
+        return new CarQuery(this, slotBitmaps);
     }
 
+    // Single attributes keep hash indexes, so a lookup costs its matches; query() combines bitmaps
     public Map<Car, String> findCarsByColor(String color) {
-        return parkedCars.entrySet().stream()
-                         .filter(entry -> color.equalsIgnoreCase(entry.getKey().getColor()))
-                         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getParkingSpot()));
+        return findByAttribute(ParkedCarStore.COLOR, color);
     }
 
     public Map<Car, String> findCarsByMake(String make) {
-        return parkedCars.entrySet().stream()
-                         .filter(entry -> make.equalsIgnoreCase(entry.getKey().getMake()))
-                         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getParkingSpot()));
+        return findByAttribute(ParkedCarStore.MAKE, make);
+    }
+
+    public Map<Car, String> findCarsByModel(String model) {
+        return findByAttribute(ParkedCarStore.MODEL, model);
+    }
+
+    private Map<Car, String> findByAttribute(int attribute, String value) {
+        LotMetrics m = metrics;
+        long start = m == null ? 0L : System.nanoTime();
+        Map<Car, String> spots = spotsOf(parkedCarStore.findBy(attribute, value));
+        if (m != null) {
+            m.findByAttribute.recordSince(start);
+        }
+        return spots;
+    }
+
+    private static Map<Car, String> spotsOf(Collection<ParkedCar> matches) {
+        Map<Car, String> spots = new HashMap<>(Math.max(4, matches.size() * 4 / 3 + 1));
+        for (ParkedCar parked : matches) {
+            spots.put(parked.getCar(), spotName(parked.getSlot()));
+        }
+        return spots;
     }
 
     public Map<Car, String> findCarsParkedWithinLastMinutes(int minutes) {
-        LocalDateTime thirtyMinutesAgo = LocalDateTime.now().minusMinutes(minutes);
-        return parkedCars.entrySet().stream()
-                         .filter(entry -> entry.getValue().getParkedAt().isAfter(thirtyMinutesAgo))
-                         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getParkingSpot()));
+        LotMetrics m = metrics;
+        long start = m == null ? 0L : System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusMinutes(minutes);
+        Map<Car, String> spots = spotsOf(arrivedAfter(cutoff));
+        if (m != null) {
+            m.findRecent.recordSince(start);
+        }
+        return spots;
+    }
+
+    Collection<ParkedCar> arrivedAfter(LocalDateTime cutoff) {
+        return parkedCarStore.arrivedAfter(cutoff);
     }
 
     public Map<Car, Ticket> findSmallHandicapCarsInRows(String... rows) {
-        return parkedCars.entrySet().stream()
-                         .filter(entry -> entry.getKey().isHandicap() && "small".equalsIgnoreCase(entry.getKey().getSize()))
-                         .filter(entry -> Arrays.asList(rows).contains(entry.getValue().getParkingRow()))
-                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        LotMetrics m = metrics;
+        long start = m == null ? 0L : System.nanoTime();
+        Map<Car, Ticket> found = query().size("small").handicap(true).rows(rows).tickets();
+        if (m != null) {
+            m.findSmallHandicap.recordSince(start);
+        }
+        return found;
     }
 
     public Ticket parkCar(Car car) {
+        return parkCar(car, "Unknown Attendant");
+    }
+
+    Ticket parkCar(Car car, String attendantName) {
         if (car == null) {
             throw new IllegalArgumentException("Car cannot be null");
         }
+        return parkCar(car, attendantName, BayType.preferredFor(car));
+    }
+
+    // Parks in the nearest bay of the first of these types that has one free, for an attendant
+    // who has already decided what kind of bay the car needs
+    Ticket parkCar(Car car, String attendantName, BayType[] preference) {
+        LotMetrics m = metrics;
+        if (m == null) {
+            return park(car, attendantName, preference);
+        }
+        long start = System.nanoTime();
+        Ticket ticket = park(car, attendantName, preference);
+        m.park.recordSince(start);
+        if (ticket == null) {
+            m.rejected.increment();
+        }
+        return ticket;
+    }
 
-        if (isFull()) {
-            //parking lot is full or not
+    private Ticket park(Car car, String attendantName, BayType[] preference) {
+        if (car == null) {
+            throw new IllegalArgumentException("Car cannot be null");
+        }
+
+        Ticket existing = ticketOf(car);
+        if (existing != null) {
+            return existing; // already parked here, don't hand out a second spot
+        }
+        checkListenersReady();
+
+        if (reserveSpaces(1) == 0) {
+            if (heldSpaces.get() == 0) {
+                //parking lot is full
+                return null;
+            }
+            processTimers(); // holds that have run out may be all that keeps the lot full
+            if (reserveSpaces(1) == 0) {
+                return null;
+            }
+        }
+
+        ParkedCar parked = placeReserved(car, attendantName, preference);
+        if (parked == null) {
+            return ticketOf(car); // parked concurrently through another gate, or null if no bay fits
+        }
+        fireCarParked(parked);
+        return parked.getTicket();
+    }
+
+    // Parks every car in one go: capacity is reserved once for the whole batch, cars that don't fit
+    // are reported as failed, and the full sign and security observers are updated once at the end.
+    public BatchResult<Car, Ticket> parkAll(Collection<Car> cars) {
+        return parkAll(cars, "Unknown Attendant");
+    }
+
+    BatchResult<Car, Ticket> parkAll(Collection<Car> cars, String attendantName) {
+        LotMetrics m = metrics;
+        if (m == null) {
+            return parkBatch(cars, attendantName);
+        }
+        long start = System.nanoTime();
+        BatchResult<Car, Ticket> result = parkBatch(cars, attendantName);
+        m.parkAll.recordSince(start);
+        m.rejected.add(result.getFailed().size());
+        return result;
+    }
+
+    private BatchResult<Car, Ticket> parkBatch(Collection<Car> cars, String attendantName) {
+        Set<Car> toPark = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Car car : cars) {
+            if (car == null) {
+                throw new IllegalArgumentException("Car cannot be null");
+            }
+            if (parkedCarStore.find(car) == null) {
+                toPark.add(car);
+            }
+        }
+        if (!toPark.isEmpty()) {
+            checkListenersReady();
+        }
+
+        int reserved = reserveSpaces(toPark.size());
+        BatchResult<Car, Ticket> result = new BatchResult<>();
+        List<ParkedCar> newlyParked = new ArrayList<>(reserved);
+        for (Car car : cars) {
+            Ticket existing = ticketOf(car);
+            if (existing != null) {
+                result.succeeded(car, existing);
+            } else if (reserved == 0) {
+                result.failed(car);
+            } else {
+                reserved--;
+                ParkedCar parked = placeReserved(car, attendantName, BayType.preferredFor(car));
+                Ticket concurrent = parked == null ? ticketOf(car) : null;
+                if (parked == null && concurrent == null) {
+                    result.failed(car); // no bay of a type it may use
+                } else if (parked == null) {
+                    result.succeeded(car, concurrent);
+                } else {
+                    newlyParked.add(parked);
+                    result.succeeded(car, parked.getTicket());
+                }
+            }
+        }
+        freeSpaces.addAndGet(reserved); // hand back what the batch didn't use before anyone is told
+
+        for (ParkedCar parked : newlyParked) {
+            fireCarParked(parked);
+        }
+        updateFullSign();
+        return result;
+    }
+
+    // Holds a standard or large spot for window: it counts as taken (isFull, getNumberOfFreeSpaces)
+    // until it is parked in with parkCar(Reservation, Car), cancelled, or expires. Returns null if
+    // no such spot is free.
+    public Reservation hold(Duration window) {
+        processTimers();
+        if (reserveSpaces(1) == 0) {
             return null;
         }
+        int slot = bays.allocate(BayType.STANDARD, BayType.LARGE); // never hold a handicap bay for an unknown car
+        if (slot < 0) {
+            freeSpaces.incrementAndGet();
+            return null;
+        }
+        heldSpaces.incrementAndGet();
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plus(window);
+        Reservation reservation = new Reservation("HOLD-" + NEXT_RESERVATION_ID.incrementAndGet(), this, slot, expiresAt);
+        reservation.expiry = timers.schedule(clock.millis() + window.toMillis(), () -> endHold(reservation));
+        fireHoldChanged();
+        return reservation;
+    }
 
-        String parkingSpot = "Spot_" + (parkedCars.size() + 1);
-        String attendantName = "Unknown Attendant"; // or fetch the actual attendant name if available
-        Ticket ticket = new Ticket(UUID.randomUUID().toString(), parkingSpot, parkedAt, attendantName);
-        parkedCars.put(car, ticket);
-        return ticket;
+    // Parks the car in the held spot. Returns null if the hold was for another lot or has already
+    // been used, cancelled or expired; the car's existing ticket if it is already parked here.
+    public Ticket parkCar(Reservation reservation, Car car) {
+        if (car == null) {
+            throw new IllegalArgumentException("Car cannot be null");
+        }
+        if (reservation == null || reservation.getLot() != this) {
+            return null;
+        }
+        if (!LocalDateTime.now(clock).isBefore(reservation.getExpiresAt())) {
+            cancel(reservation); // expired, whether or not its timer has fired yet
+            return null;
+        }
+        checkListenersReady();
+        if (!reservation.end()) {
+            return null;
+        }
+        timers.cancel(reservation.expiry);
+        heldSpaces.decrementAndGet();
+
+        Ticket existing = ticketOf(car);
+        if (existing != null) {
+            releaseSpace(reservation.getSlot()); // already parked here, the held spot isn't needed
+            fireHoldChanged();
+            return existing;
+        }
+        ParkedCar parked = placeInSlot(car, "Unknown Attendant", reservation.getSlot());
+        fireHoldChanged();
+        if (parked == null) {
+            return ticketOf(car); // the same car was parked concurrently through another gate
+        }
+        fireCarParked(parked);
+        return parked.getTicket();
+    }
+
+    // Gives the held spot back; false if the hold had already ended
+    public boolean cancel(Reservation reservation) {
+        if (reservation == null || reservation.getLot() != this || !timers.cancel(reservation.expiry)) {
+            return false;
+        }
+        return endHold(reservation);
+    }
+
+    private boolean endHold(Reservation reservation) {
+        if (!reservation.end()) {
+            return false;
+        }
+        heldSpaces.decrementAndGet();
+        releaseSpace(reservation.getSlot());
+        fireHoldChanged();
+        return true;
+    }
+
+    // Raises an alarm for every car still parked limit after its arrival. Applies to cars parked
+    // from now on; null turns alarms off.
+    public void setOverstayAlarm(Duration limit, OverstayListener listener) {
+        this.overstayListener = listener;
+        this.overstayLimit = listener == null ? null : limit;
+    }
+
+    private void scheduleOverstayAlarm(Ticket ticket) {
+        Duration limit = overstayLimit;
+        if (limit == null) {
+            return;
+        }
+        long arrivalMillis = ticket.getParkedAt().atZone(clock.getZone()).toInstant().toEpochMilli();
+        overstayAlarms.put(ticket.getTicketId(), timers.schedule(arrivalMillis + limit.toMillis(), () -> {
+            ParkedCar parked = overstayAlarms.remove(ticket.getTicketId()) == null ? null : parkedCarFor(ticket);
+            OverstayListener listener = overstayListener;
+            if (parked != null && listener != null) {
+                listener.overstayed(this, parked.getCar(), ticket);
+            }
+        }));
+    }
+
+    // Expires holds and raises overstay alarms that are due by the lot's clock, on the calling
+    // thread. Holds also expire lazily when hold() or parkCar(Reservation, Car) runs; call this
+    // from a scheduler (e.g. once a second) to have alarms raised on time.
+    public void processTimers() {
+        List<Runnable> due = timers.advanceTo(clock.millis());
+        if (due.isEmpty()) {
+            return;
+        }
+        for (Runnable task : due) {
+            task.run();
+        }
+        updateFullSign();
+    }
+
+    // Puts a car into a space already reserved for it, in the nearest bay of a type it may use;
+    // returns null (and frees the space) if no such bay is free or the same car was parked concurrently
+    private ParkedCar placeReserved(Car car, String attendantName, BayType[] preference) {
+        int slot = bays.allocate(preference);
+        if (slot < 0) {
+            freeSpaces.incrementAndGet(); // the free spaces are all bays this car can't use
+            return null;
+        }
+        return placeInSlot(car, attendantName, slot);
+    }
+
+    private ParkedCar placeInSlot(Car car, String attendantName, int slot) {
+        // millisecond precision, so tickets read back from compact storage equal the ones issued
+        LocalDateTime parkedAt = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MILLIS);
+        Ticket ticket = new Ticket(ticketIdGenerator.nextTicketId(), spotName(slot), parkedAt, attendantName, bays.rowOf(slot));
+        ParkedCar parked = parkedCarStore.put(car, ticket, slot);
+        carsBySlot.set(slot, parked); // the slot is ours until released
+
+        if (!parkedCarStore.register(parked, car)) {
+            carsBySlot.set(slot, null);
+            parkedCarStore.remove(parked);
+            releaseSpace(slot);
+            return null;
+        }
+
+        addToIndexes(parked, car, ticket);
+        return parked;
+    }
+
+    // Puts back a car recovered from a journal, in the slot and with the ticket it had before.
+    // Listeners are not told: the car never left as far as the rest of the system is concerned.
+    void restore(Car car, Ticket ticket, int slot) {
+        if (parkedCarStore.find(car) != null) {
+            throw new IllegalStateException("Ticket " + ticket.getTicketId() + " is already in the lot");
+        }
+        if (slot < 0 || slot >= capacity || !spotName(slot).equals(ticket.getParkingSpot())) {
+            throw new IllegalStateException("Ticket " + ticket.getTicketId() + " is not for slot " + slot);
+        }
+        if (reserveSpaces(1) == 0) {
+            throw new IllegalStateException("No room to restore ticket " + ticket.getTicketId());
+        }
+        if (!bays.allocate(slot)) {
+            freeSpaces.incrementAndGet();
+            throw new IllegalStateException("Spot " + spotName(slot) + " for ticket " + ticket.getTicketId() + " is not free");
+        }
+
+        ParkedCar parked = parkedCarStore.put(car, ticket, slot);
+        carsBySlot.set(slot, parked);
+        if (!parkedCarStore.register(parked, car)) {
+            carsBySlot.set(slot, null);
+            parkedCarStore.remove(parked);
+            releaseSpace(slot);
+            throw new IllegalStateException("Ticket " + ticket.getTicketId() + " is already in the lot");
+        }
+        addToIndexes(parked, car, ticket);
+    }
+
+    private void addToIndexes(ParkedCar parked, Car car, Ticket ticket) {
+        slotTable.set(parked.getSlot(), parked);
+        slotBitmaps.add(parked, car, ticket);
+        scheduleOverstayAlarm(ticket);
+    }
+
+    private void removeFromIndexes(ParkedCar parked, Car car, Ticket ticket) {
+        TimingWheel.Timeout alarm = overstayAlarms.remove(ticket.getTicketId());
+        if (alarm != null) {
+            timers.cancel(alarm);
+        }
+        slotBitmaps.remove(parked, car, ticket);
+        slotTable.set(parked.getSlot(), null);
+    }
+
+    // Immutable view of every occupied spot right now; O(1), parkers are not held up
+    SlotTable.Version frozenSlots() {
+        return slotTable.freeze();
+    }
+
+    // A consistent, read-only picture of the lot that copies nothing up front; prefer this to
+    // getAllParkedCars() for anything that polls
+    public ParkingLotView view() {
+        return new ParkingLotView(slotTable.latest());
+    }
+
+    private void fireCarParked(ParkedCar parked) {
+        LotMetrics m = metrics;
+        if (m != null) {
+            m.parked.increment();
+        }
+        for (ParkingEventListener listener : parkingEventListeners) {
+            listener.carParked(this, parked.getCar(), parked.getTicket());
+        }
+    }
+
+    // Lets a listener such as a failed journal turn a change down before anything is touched
+    private void checkListenersReady() {
+        for (ParkingEventListener listener : parkingEventListeners) {
+            listener.beforeChange(this);
+        }
+    }
+
+    private void fireHoldChanged() {
+        for (ParkingEventListener listener : parkingEventListeners) {
+            listener.holdChanged(this);
+        }
+    }
+
+    // Takes up to count spaces with a single CAS and returns how many it got
+    private int reserveSpaces(int count) {
+        while (true) {
+            int free = freeSpaces.get();
+            int taken = Math.min(free, count);
+            if (taken <= 0) {
+                return 0;
+            }
+            if (freeSpaces.compareAndSet(free, free - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private void releaseSpace(int slot) {
+        bays.release(slot);
+        freeSpaces.incrementAndGet();
     }
 
     public Car unparkCar(Ticket ticket) {
-        if (ticket == null || !parkedCars.containsValue(ticket)) {
+        LotMetrics m = metrics;
+        if (m == null) {
+            return unpark(ticket);
+        }
+        long start = System.nanoTime();
+        Car car = unpark(ticket);
+        m.unpark.recordSince(start);
+        if (car != null) {
+            m.unparked.increment();
+        }
+        return car;
+    }
+
+    private Car unpark(Ticket ticket) {
+        ParkedCar parked = parkedCarFor(ticket);
+        if (parked == null) {
             return null;
         }
+        checkListenersReady();
 
-        Car carToUnpark = parkedCars.entrySet().stream()
-            .filter(entry -> ticket.equals(entry.getValue()))
-            .map(Map.Entry::getKey)
-            .findFirst()
-            .orElse(null);
+        if (!carsBySlot.compareAndSet(parked.getSlot(), parked, null)) {
+            return null; // another gate unparked this ticket first
+        }
+
+        parkedCarStore.remove(parked); // unregisters the car and detaches compact handles
+        Car car = parked.getCar();
+        Ticket parkedTicket = parked.getTicket();
+        removeFromIndexes(parked, car, parkedTicket);
+        releaseSpace(parked.getSlot()); // only after the store has let go of the slot
+        for (ParkingEventListener listener : parkingEventListeners) {
+            listener.carUnparked(this, car, parkedTicket);
+        }
+        return car;
+    }
 
-        if (carToUnpark != null) {
-            parkedCars.remove(carToUnpark);
+    // Unparks every ticket, reporting unknown or already used tickets as failed, with one
+    // full sign and security update for the whole batch
+    public BatchResult<Ticket, Car> unparkAll(Collection<Ticket> tickets) {
+        BatchResult<Ticket, Car> result = new BatchResult<>();
+        for (Ticket ticket : tickets) {
+            Car car = unparkCar(ticket);
+            if (car == null) {
+                result.failed(ticket);
+            } else {
+                result.succeeded(ticket, car);
+            }
         }
+        updateFullSign();
+        return result;
+    }
 
-        return carToUnpark;
+    // Whether this ticket's car is parked here; false for stale or forged tickets
+    boolean holds(Ticket ticket) {
+        return parkedCarFor(ticket) != null;
+    }
+
+    // Returns the car parked under this ticket, or null for stale or forged tickets
+    private ParkedCar parkedCarFor(Ticket ticket) {
+        if (ticket == null || ticket.getTicketId() == null) {
+            return null;
+        }
+
+        int slot = slotNamed(ticket.getParkingSpot());
+        ParkedCar parked = slot < 0 || slot >= capacity ? null : carsBySlot.get(slot);
+        if (parked == null || !parked.isTicket(ticket)) {
+            return null;
+        }
+        return parked;
+    }
+
+    private Ticket ticketOf(Car car) {
+        ParkedCar parked = parkedCarStore.find(car);
+        return parked == null ? null : parked.getTicket();
+    }
+
+    // Slot a current ticket occupies, or -1 if the ticket is not parked here
+    int slotOf(Ticket ticket) {
+        ParkedCar parked = parkedCarFor(ticket);
+        return parked == null ? -1 : parked.getSlot();
+    }
+
+    static String spotName(int slot) {
+        return "Spot_" + (slot + 1);
+    }
+
+    // Inverse of spotName; -1 for names that aren't spots
+    static int slotNamed(String spot) {
+        if (spot == null || !spot.startsWith("Spot_")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(spot.substring("Spot_".length())) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Name of the free spot closest to the entrance, or null when the lot is full
+    public String getNearestFreeSpot() {
+        int slot = bays.nearestFree();
+        return slot < 0 ? null : spotName(slot);
+    }
+
+    // Name of the free bay of this type closest to the entrance, or null when there is none
+    public String getNearestFreeSpot(BayType type) {
+        int slot = bays.nearestFree(type);
+        return slot < 0 ? null : spotName(slot);
     }
 
     public boolean hasNearestFreeSpace() {
-        return !isFull(); // Simplified; in reality, this would involve more complex logic
+        return bays.nearestFree() >= 0;
+    }
+
+    // Distance rank (0 = next to the entrance) of the nearest free bay of this type, or -1
+    int nearestFreeRank(BayType type) {
+        return bays.nearestFree(type);
+    }
+
+    public int getNumberOfBays(BayType type) {
+        return bays.getBays(type);
+    }
+
+    // Bays of this type not occupied or held
+    public int getNumberOfFreeBays(BayType type) {
+        return bays.getFreeSlots(type);
+    }
+
+    public int getNumberOfFreeBaysInRow(String row) {
+        return bays.getFreeInRow(row);
+    }
+
+    public int getNumberOfFreeBaysInZone(String zone) {
+        return bays.getFreeInZone(zone);
+    }
+
+    // Capacity and counts cover every node once the lot is shared through an OccupancyReplicator
+    public int getCapacity() {
+        SharedOccupancy s = shared;
+        return s == null ? capacity : s.getCapacity();
     }
 
     public int getNumberOfFreeSpaces() {
-        return capacity - parkedCars.size(); // Number of free spaces is total capacity minus the number of parked cars
+        SharedOccupancy s = shared;
+        return s == null ? freeSpaces.get() : s.getCapacity() - s.getOccupied();
     }
 
+    // Whether parkCar would turn a car away. A shared lot is full when this node's own bays are,
+    // however much room getNumberOfFreeSpaces() reports at the other nodes, since a node can only
+    // park in its own partition; the full sign follows the same rule.
     public boolean isFull() {
-        return parkedCars.size() >= capacity;
+        return freeSpaces.get() <= 0;
+    }
+
+    // The same as !isFull()
+    public boolean hasRoomHere() {
+        return freeSpaces.get() > 0;
     }
 
     public boolean isFullSignDisplayed() {
         return isFullSignDisplayed;
     }
 
+    // Edge-triggered: observers (including the sign itself, see ConsoleFullSign) only hear about
+    // full/not-full transitions, delivered through the lot's SecurityEventDispatcher. The sign flips
+    // under the lock but is published after it, so a dispatcher that waits for room doesn't hold up
+    // other gates; dispatchers deliver the sign as it is by then, so publishes that overtake each
+    // other still leave observers on the latest state.
     public void updateFullSign() {
-        if (isFull() && !isFullSignDisplayed) {
-            displayFullSign();
-            isFullSignDisplayed = true;
-        } else if (!isFull() && isFullSignDisplayed) {
-            removeFullSign();
-            isFullSignDisplayed = false;
+        boolean full;
+        SecurityEventDispatcher dispatcher;
+        synchronized (this) {
+            full = isFull();
+            if (full == isFullSignDisplayed) {
+                return;
+            }
+            isFullSignDisplayed = full;
+            LotMetrics m = metrics;
+            if (m != null) {
+                m.fullSignTransitions.increment();
+            }
+            dispatcher = securityEventDispatcher;
         }
-        notifySecurityObservers();
+        dispatcher.publish(this, full, securityObservers);
+    }
+
+    // Synchronized with updateFullSign, so the dispatcher sees the sign as it was before its first event
+    public synchronized void setSecurityEventDispatcher(SecurityEventDispatcher securityEventDispatcher) {
+        securityEventDispatcher.attach(this);
+        this.securityEventDispatcher = securityEventDispatcher;
     }
 
     public int getNumberOfParkedCars() {
-        return parkedCars.size();
+        SharedOccupancy s = shared;
+        return s == null ? localParkedCars() : s.getParkedCars();
     }
 
-    private void notifySecurityObservers() {
-        for (SecurityObserver observer : securityObservers) {
-            observer.notify(isFull());
-        }
+    int localCapacity() {
+        return capacity;
+    }
+
+    int localParkedCars() {
+        return capacity - freeSpaces.get() - heldSpaces.get();
+    }
+
+    // Parked and held, i.e. spaces this node can't hand out
+    int localOccupied() {
+        return capacity - freeSpaces.get();
+    }
+
+    void shareOccupancy(SharedOccupancy shared) {
+        this.shared = shared;
+        sharedOccupancyChanged();
     }
 
-    private void displayFullSign() {
-        // Simulate displaying the "Full" sign
-        System.out.println("Parking Lot is Full. Full sign displayed.");
+    // Another node's cars came or went: attendants rank lots by the converged counts. The sign
+    // goes by this node's own bays, which other nodes never change.
+    void sharedOccupancyChanged() {
+        for (ParkingEventListener listener : parkingEventListeners) {
+            listener.occupancyChangedElsewhere(this);
+        }
     }
 
-    private void removeFullSign() {
-        // Simulate removing the "Full" sign
-        System.out.println("Parking Lot is not full anymore. Full sign removed.");
+    public int getNumberOfHeldSpaces() {
+        return heldSpaces.get();
     }
 
     public double calculateCharge(Ticket ticket) {
@@ -145,15 +816,37 @@ public class ParkingLot {
             return 0.0;
         }
 
-        long hoursParked = java.time.Duration.between(ticket.getParkedAt(), LocalDateTime.now()).toHours();
-        return hoursParked * RATE_PER_HOUR;
+        ParkedCar parked = parkedCarFor(ticket);
+        String size = parked == null ? null : parked.getSize();
+        return charge(size, ticket.getParkedAt(), LocalDateTime.now(clock));
     }
 
-    public Map<Car, Ticket> getAllParkedCars() {
-        return new HashMap<>(parkedCars);
+    double charge(String size, LocalDateTime arrival, LocalDateTime departure) {
+        Tariff current = tariff;
+        if (current == null) {
+            long hoursParked = Duration.between(arrival, departure).toHours();
+            return hoursParked * RATE_PER_HOUR;
+        }
+        return current.charge(size, arrival, departure);
     }
-}
 
-interface SecurityObserver {
-    void notify(boolean isFull);
+    public void setTariff(Tariff tariff) {
+        this.tariff = tariff;
+    }
+
+    LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    public Map<Car, Ticket> getAllParkedCars() {
+        Map<Car, Ticket> all = new HashMap<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            ParkedCar parked = carsBySlot.get(slot);
+            if (parked == null) {
+                continue;
+            }
+            all.put(parked.getCar(), parked.getTicket());
+        }
+        return all;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.example;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Binary images of a lot's spots. writeFull() captures every occupied spot; writeIncremental()
+// captures only the spots that changed since the previous image written by this object. Both work
+// on a frozen SlotTable version, so parkers are never blocked while an image is written.
+// load() streams a full image plus any incrementals, in order, into an empty lot.
+//
+// Layout: int magic, byte version, byte kind, int capacity, long sequence, long base sequence,
+// then per spot: varint (slot + 1), byte present, and if present the ticket and car; a 0 varint
+// ends the list and is followed by the number of spots written. Repeated strings (colors, makes,
+// attendants, ...) are written once and then referred to by number.
+public class ParkingLotSnapshots {
+    private static final int MAGIC = 0x504C534E; // "PLSN"
+    private static final byte VERSION = 1;
+    private static final byte FULL = 0;
+    private static final byte INCREMENTAL = 1;
+
+    private final ParkingLot lot;
+    private SlotTable.Version lastWritten;
+
+    public ParkingLotSnapshots(ParkingLot lot) {
+        this.lot = lot;
+    }
+
+    public synchronized void writeFull(OutputStream out) throws IOException {
+        SlotTable.Version version = lot.frozenSlots();
+        ImageWriter writer = new ImageWriter(out, FULL, version, -1);
+        version.forEach((slot, parked) -> writer.present(slot, parked));
+        writer.finish();
+        lastWritten = version;
+    }
+
+    public synchronized void writeIncremental(OutputStream out) throws IOException {
+        if (lastWritten == null) {
+            throw new IllegalStateException("Write a full snapshot before an incremental one");
+        }
+        SlotTable.Version version = lot.frozenSlots();
+        ImageWriter writer = new ImageWriter(out, INCREMENTAL, version, lastWritten.sequence());
+        version.forEachChangedSince(lastWritten, slot -> {
+            ParkedCar parked = version.get(slot);
+            if (parked == null) {
+                writer.cleared(slot);
+            } else {
+                writer.present(slot, parked);
+            }
+        });
+        writer.finish();
+        lastWritten = version;
+    }
+
+    // Restores a full image followed by incrementals taken after it, in the order they were written
+    public static void load(ParkingLot lot, InputStream... images) throws IOException {
+        if (lot.localParkedCars() != 0) {
+            throw new IllegalStateException("A snapshot can only be loaded into an empty lot");
+        }
+
+        Map<Integer, ParkedCar> spots = new TreeMap<>();
+        long sequence = -1;
+        for (int i = 0; i < images.length; i++) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(images[i], 64 * 1024));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a parking lot snapshot");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported parking lot snapshot version " + version);
+            }
+            byte kind = in.readByte();
+            if (kind != (i == 0 ? FULL : INCREMENTAL)) {
+                throw new IOException("Expected a full snapshot followed by incremental ones");
+            }
+            int capacity = in.readInt();
+            if (capacity != lot.localCapacity()) {
+                throw new IOException("Snapshot is for a lot of " + capacity + " spots, not " + lot.localCapacity());
+            }
+            long imageSequence = in.readLong();
+            long baseSequence = in.readLong();
+            if (kind == INCREMENTAL && baseSequence != sequence) {
+                throw new IOException("Incremental snapshot " + imageSequence + " does not follow snapshot " + sequence);
+            }
+            sequence = imageSequence;
+
+            StringReader strings = new StringReader(in);
+            int entries = 0;
+            for (int slotPlusOne = readVarint(in); slotPlusOne != 0; slotPlusOne = readVarint(in)) {
+                int slot = slotPlusOne - 1;
+                if (in.readByte() == 0) {
+                    spots.remove(slot);
+                } else {
+                    spots.put(slot, readParkedCar(in, strings, slot));
+                }
+                entries++;
+            }
+            if (in.readInt() != entries) {
+                throw new IOException("Snapshot is truncated or corrupt");
+            }
+        }
+
+        for (ParkedCar parked : spots.values()) {
+            lot.restore(parked.getCar(), parked.getTicket(), parked.getSlot());
+        }
+        lot.updateFullSign();
+    }
+
+    private static ParkedCar readParkedCar(DataInputStream in, StringReader strings, int slot) throws IOException {
+        String ticketId = strings.read();
+        String spot = strings.read();
+        LocalDateTime parkedAt = LocalDateTime.ofEpochSecond(in.readLong(), readVarint(in), ZoneOffset.UTC);
+        String attendantName = strings.read();
+        String row = strings.read();
+        Car car = new Car(strings.read(), strings.read(), strings.read(), strings.read(), strings.read(), in.readBoolean());
+        return new ParkedCar(car, new Ticket(ticketId, spot, parkedAt, attendantName, row), slot);
+    }
+
+    private static final class ImageWriter {
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private int entries;
+        private IOException failure;
+
+        ImageWriter(OutputStream target, byte kind, SlotTable.Version version, long baseSequence) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(kind);
+            out.writeInt(version.capacity());
+            out.writeLong(version.sequence());
+            out.writeLong(baseSequence);
+        }
+
+        void present(int slot, ParkedCar parked) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                Ticket ticket = parked.getTicket();
+                Car car = parked.getCar();
+                writeVarint(out, slot + 1);
+                out.writeByte(1);
+                writeString(ticket.getTicketId());
+                writeString(ticket.getParkingSpot());
+                out.writeLong(ticket.getParkedAt().toEpochSecond(ZoneOffset.UTC));
+                writeVarint(out, ticket.getParkedAt().getNano());
+                writeString(ticket.getAttendantName());
+                writeString(ticket.getParkingRow());
+                writeString(car.getLicensePlate());
+                writeString(car.getColor());
+                writeString(car.getMake());
+                writeString(car.getModel());
+                writeString(car.getSize());
+                out.writeBoolean(car.isHandicap());
+                entries++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void cleared(int slot) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                writeVarint(out, slot + 1);
+                out.writeByte(0);
+                entries++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        // 0 = null, 1 = new string that follows, n + 2 = the n-th string written before
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarint(out, 0);
+                return;
+            }
+            Integer known = dictionary.get(value);
+            if (known != null) {
+                writeVarint(out, known + 2);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            writeVarint(out, 1);
+            out.writeUTF(value);
+        }
+
+        void finish() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            writeVarint(out, 0);
+            out.writeInt(entries);
+            out.flush();
+        }
+    }
+
+    private static final class StringReader {
+        private final DataInputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+
+        StringReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        String read() throws IOException {
+            int code = readVarint(in);
+            if (code == 0) {
+                return null;
+            }
+            if (code == 1) {
+                String value = in.readUTF();
+                dictionary.add(value);
+                return value;
+            }
+            if (code - 2 >= dictionary.size()) {
+                throw new IOException("Snapshot refers to an unknown string");
+            }
+            return dictionary.get(code - 2);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Snapshot is corrupt");
+    }
+}
@@ -0,0 +1,107 @@
+package com.example;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// An immutable picture of a lot at one moment, from ParkingLot.view(). Taking one copies nothing:
+// it shares the lot's copy-on-write SlotTable, and results are produced lazily while iterating,
+// in spot order. Cars that park or leave afterwards never show up in it.
+public final class ParkingLotView implements Iterable<Map.Entry<Car, Ticket>> {
+    private final SlotTable.Version version;
+
+    ParkingLotView(SlotTable.Version version) {
+        this.version = version;
+    }
+
+    // Increases as the lot changes; two views with the same sequence hold the same cars
+    public long getSequence() {
+        return version.sequence();
+    }
+
+    public int getCapacity() {
+        return version.capacity();
+    }
+
+    public int size() {
+        return version.size();
+    }
+
+    public boolean isEmpty() {
+        return version.size() == 0;
+    }
+
+    // The car in the named spot, or null if the spot was free
+    public Car getCarAt(String spot) {
+        ParkedCar parked = version.get(ParkingLot.slotNamed(spot));
+        return parked == null ? null : parked.getCar();
+    }
+
+    public Ticket getTicketAt(String spot) {
+        ParkedCar parked = version.get(ParkingLot.slotNamed(spot));
+        return parked == null ? null : parked.getTicket();
+    }
+
+    @Override
+    public Iterator<Map.Entry<Car, Ticket>> iterator() {
+        Iterator<ParkedCar> cursor = version.iterator();
+        return new Iterator<Map.Entry<Car, Ticket>>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Car, Ticket> next() {
+                ParkedCar parked = cursor.next();
+                return new AbstractMap.SimpleImmutableEntry<>(parked.getCar(), parked.getTicket());
+            }
+        };
+    }
+
+    public Stream<Map.Entry<Car, Ticket>> stream() {
+        return parkedCars().map(parked -> new AbstractMap.SimpleImmutableEntry<>(parked.getCar(), parked.getTicket()));
+    }
+
+    public Stream<Car> cars() {
+        return parkedCars().map(ParkedCar::getCar);
+    }
+
+    public Stream<Ticket> tickets() {
+        return parkedCars().map(ParkedCar::getTicket);
+    }
+
+    public Stream<Car> findCarsByColor(String color) {
+        return cars().filter(matching(color, Car::getColor));
+    }
+
+    public Stream<Car> findCarsByMake(String make) {
+        return cars().filter(matching(make, Car::getMake));
+    }
+
+    public Stream<Car> findCarsByModel(String model) {
+        return cars().filter(matching(model, Car::getModel));
+    }
+
+    private static Predicate<Car> matching(String value, Function<Car, String> attribute) {
+        return car -> value != null && value.equalsIgnoreCase(attribute.apply(car));
+    }
+
+    // Spots whose car differs between an older view of the same lot and this one, in spot order;
+    // only the parts of the lot that changed in between are visited
+    public Stream<String> spotsChangedSince(ParkingLotView older) {
+        Stream.Builder<String> changed = Stream.builder();
+        version.forEachChangedSince(older.version, slot -> changed.add(ParkingLot.spotName(slot)));
+        return changed.build();
+    }
+
+    Stream<ParkedCar> parkedCars() {
+        return StreamSupport.stream(Spliterators.spliterator(version.iterator(), version.size(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+}
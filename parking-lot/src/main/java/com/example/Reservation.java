@@ -0,0 +1,50 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A spot held for a driver until expiresAt, from ParkingLot.hold. The spot counts as taken until
+// the hold is turned into a park with ParkingLot.parkCar(Reservation, Car), cancelled, or expires.
+public class Reservation {
+    private final String reservationId;
+    private final ParkingLot lot;
+    private final int slot;
+    private final LocalDateTime expiresAt;
+    private final AtomicBoolean active = new AtomicBoolean(true);
+    volatile TimingWheel.Timeout expiry;
+
+    Reservation(String reservationId, ParkingLot lot, int slot, LocalDateTime expiresAt) {
+        this.reservationId = reservationId;
+        this.lot = lot;
+        this.slot = slot;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public String getParkingSpot() {
+        return ParkingLot.spotName(slot);
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isActive() {
+        return active.get();
+    }
+
+    ParkingLot getLot() {
+        return lot;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    // Exactly one of park, cancel and expire gets to end a hold
+    boolean end() {
+        return active.compareAndSet(true, false);
+    }
+}
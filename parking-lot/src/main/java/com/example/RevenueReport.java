@@ -0,0 +1,72 @@
+package com.example;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// What every open ticket across a set of lots would be charged if the car left now, e.g. for an
+// end-of-shift revenue report or to have exit gates' prices ready. Each lot is read through one
+// consistent view and priced at its own clock; the tickets of all lots are priced in parallel.
+public class RevenueReport {
+    private final Map<Ticket, Double> charges;
+    private final double total;
+
+    private RevenueReport(Map<Ticket, Double> charges, double total) {
+        this.charges = Collections.unmodifiableMap(charges);
+        this.total = total;
+    }
+
+    public static RevenueReport of(Collection<ParkingLot> lots) {
+        List<ParkedCar> open = new ArrayList<>();
+        List<ParkingLot> ownerOf = new ArrayList<>();
+        List<LocalDateTime> nowOf = new ArrayList<>();
+        for (ParkingLot lot : lots) {
+            ParkingLotView view = lot.view();
+            LocalDateTime now = lot.now();
+            view.parkedCars().forEach(parked -> {
+                open.add(parked);
+                ownerOf.add(lot);
+                nowOf.add(now);
+            });
+        }
+
+        int count = open.size();
+        Ticket[] tickets = new Ticket[count];
+        double[] amounts = new double[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            ParkedCar parked = open.get(i);
+            Ticket ticket = parked.getTicket();
+            tickets[i] = ticket;
+            amounts[i] = ownerOf.get(i).charge(parked.getCar().getSize(), ticket.getParkedAt(), nowOf.get(i));
+        });
+
+        Map<Ticket, Double> charges = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+        double total = 0.0;
+        for (int i = 0; i < count; i++) {
+            charges.put(tickets[i], amounts[i]);
+            total += amounts[i];
+        }
+        return new RevenueReport(charges, total);
+    }
+
+    public Map<Ticket, Double> getCharges() {
+        return charges;
+    }
+
+    // The charge for this ticket, or 0.0 if it wasn't open when the report was taken
+    public double getChargeFor(Ticket ticket) {
+        return charges.getOrDefault(ticket, 0.0);
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getOpenTickets() {
+        return charges.size();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example;
+import java.util.List;
+
+// Delivers a lot's full/not-full transitions to its security observers. publish is called after the
+// lot's sign has flipped but outside its lock, so two publishes for a lot can arrive out of order;
+// isFull is the state at the flip and lot.isFullSignDisplayed() the state now.
+public interface SecurityEventDispatcher {
+    void publish(ParkingLot lot, boolean isFull, List<SecurityObserver> observers);
+
+    // Called when the lot starts publishing through this dispatcher, under the lock the sign flips under
+    default void attach(ParkingLot lot) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.example;
+
+public interface SecurityObserver {
+    void notify(boolean isFull);
+}
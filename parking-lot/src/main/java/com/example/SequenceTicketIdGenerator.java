@@ -0,0 +1,86 @@
+package com.example;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Default ticket IDs: a 63-bit number made of a 15-bit lot id and a 48-bit sequence, printed as
+// 13 Crockford base-32 characters (e.g. "01JZ6Q3K9C8T0"). The sequence is one atomic increment,
+// so there is no SecureRandom contention, and it is seeded from the clock in 1/256 ms steps so a
+// restarted lot carries on above the IDs it issued before.
+public class SequenceTicketIdGenerator implements TicketIdGenerator {
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int SEQUENCE_BITS = 48;
+    public static final int MAX_LOT_ID = 0x7FFF;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long lotBits;
+    private final AtomicLong sequence;
+
+    public SequenceTicketIdGenerator(int lotId) {
+        this(lotId, Clock.systemUTC());
+    }
+
+    // Seeds the sequence from the lot's clock, so lots on a test or simulated clock issue repeatable IDs
+    public SequenceTicketIdGenerator(int lotId, Clock clock) {
+        if (lotId < 0 || lotId > MAX_LOT_ID) {
+            throw new IllegalArgumentException("Lot id must be between 0 and " + MAX_LOT_ID);
+        }
+        this.lotBits = (long) lotId << SEQUENCE_BITS;
+        this.sequence = new AtomicLong((clock.millis() - EPOCH_MILLIS) << 8);
+    }
+
+    // Takes over a retired generator's lot id, carrying on above every ID it issued
+    SequenceTicketIdGenerator(SequenceTicketIdGenerator retired, Clock clock) {
+        this.lotBits = retired.lotBits;
+        this.sequence = new AtomicLong(Math.max((clock.millis() - EPOCH_MILLIS) << 8, retired.sequence.get()));
+    }
+
+    @Override
+    public String nextTicketId() {
+        return encode(lotBits | (sequence.getAndIncrement() & SEQUENCE_MASK));
+    }
+
+    // Lot id a ticket ID was issued for, or -1 if it was not made by this generator
+    public static int lotIdOf(String ticketId) {
+        long id = decode(ticketId);
+        return id < 0 ? -1 : (int) (id >>> SEQUENCE_BITS);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Returns the numeric ID, or -1 for anything that is not a 13-character code of a 63-bit value
+    static long decode(String ticketId) {
+        if (ticketId == null || ticketId.length() != ENCODED_LENGTH) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int digit = digitOf(ticketId.charAt(i));
+            if (digit < 0 || (i == 0 && digit > 7)) {
+                return -1; // 13 characters carry 65 bits, the first may only use 3
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    private static int digitOf(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        for (int i = 10; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The converged picture of one replicated lot on one node: this node's share read live from its
+// ParkingLot, plus the latest update from each other node. See OccupancyReplicator.
+class SharedOccupancy {
+    private final String lotId;
+    private final String nodeId;
+    private final ParkingLot lot;
+    private final Map<String, OccupancyUpdate> others = new ConcurrentHashMap<>(); // by node id
+    private long sequence; // guarded by the replicator's flush
+    private volatile long lastPublished = -1; // parked << 32 | held; -1 to publish at the next flush whether or not it changed
+
+    SharedOccupancy(String lotId, String nodeId, ParkingLot lot) {
+        this.lotId = lotId;
+        this.nodeId = nodeId;
+        this.lot = lot;
+    }
+
+    String getLotId() {
+        return lotId;
+    }
+
+    ParkingLot getLot() {
+        return lot;
+    }
+
+    int getCapacity() {
+        int total = lot.localCapacity();
+        for (OccupancyUpdate update : others.values()) {
+            total += update.getCapacity();
+        }
+        return total;
+    }
+
+    int getOccupied() {
+        int total = lot.localOccupied();
+        for (OccupancyUpdate update : others.values()) {
+            total += update.getOccupied();
+        }
+        return total;
+    }
+
+    // Held spaces at other nodes aren't cars, so they only count towards getOccupied
+    int getParkedCars() {
+        int total = lot.localParkedCars();
+        for (OccupancyUpdate update : others.values()) {
+            total += update.getParked();
+        }
+        return total;
+    }
+
+    // This node's entry if it changed since the last one published, or if forced; null otherwise
+    OccupancyUpdate nextUpdate(boolean force) {
+        int parked = lot.localParkedCars();
+        int held = lot.getNumberOfHeldSpaces();
+        long entry = (long) parked << 32 | held;
+        if (!force && entry == lastPublished) {
+            return null;
+        }
+        lastPublished = entry;
+        return new OccupancyUpdate(lotId, nodeId, ++sequence, lot.localCapacity(), parked, held);
+    }
+
+    // The entry never left this node, so it goes out again at the next flush
+    void publishFailed() {
+        lastPublished = -1;
+    }
+
+    // Keeps the newest entry per node; true if the converged picture changed. A node heard from
+    // for the first time may have missed this node's entry, so it goes out again at the next flush.
+    boolean merge(OccupancyUpdate update) {
+        if (nodeId.equals(update.getNodeId())) {
+            return false;
+        }
+        OccupancyUpdate before = others.get(update.getNodeId());
+        if (before == null) {
+            lastPublished = -1;
+        }
+        OccupancyUpdate after = others.merge(update.getNodeId(), update,
+                (current, incoming) -> incoming.getSequence() > current.getSequence() ? incoming : current);
+        return after != before && (before == null || before.getParked() != after.getParked()
+                || before.getHeld() != after.getHeld() || before.getCapacity() != after.getCapacity());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+// In-memory MetricsRegistry, ready to be scraped by whatever exports the numbers
+public class SimpleMetricsRegistry implements MetricsRegistry {
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    @Override
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    @Override
+    public void scrape(Scraper scraper) {
+        counters.forEach((name, counter) -> scraper.counter(name, counter.get()));
+        gauges.forEach((name, gauge) -> scraper.gauge(name, gauge.getAsLong()));
+        histograms.forEach(scraper::histogram);
+    }
+}
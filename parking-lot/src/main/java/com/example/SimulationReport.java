@@ -0,0 +1,84 @@
+package com.example;
+import java.util.Locale;
+
+// What a TrafficSimulator run measured
+public class SimulationReport {
+    private final int visits;
+    private final long elapsedNanos;
+    private final LatencyHistogram parkLatency;
+    private final LatencyHistogram unparkLatency;
+    private final long rejectedParks;
+    private final long unparks;
+    private final int finalOccupancy;
+    private final int capacity;
+
+    SimulationReport(int visits, long elapsedNanos, LatencyHistogram parkLatency, LatencyHistogram unparkLatency,
+                     long rejectedParks, long unparks, int finalOccupancy, int capacity) {
+        this.visits = visits;
+        this.elapsedNanos = elapsedNanos;
+        this.parkLatency = parkLatency;
+        this.unparkLatency = unparkLatency;
+        this.rejectedParks = rejectedParks;
+        this.unparks = unparks;
+        this.finalOccupancy = finalOccupancy;
+        this.capacity = capacity;
+    }
+
+    public int getVisits() {
+        return visits;
+    }
+
+    // Park and unpark calls completed per second of wall-clock time
+    public double getThroughput() {
+        long operations = parkLatency.getCount() + unparkLatency.getCount();
+        return elapsedNanos == 0 ? 0.0 : operations * 1e9 / elapsedNanos;
+    }
+
+    public LatencyHistogram getParkLatency() {
+        return parkLatency;
+    }
+
+    public LatencyHistogram getUnparkLatency() {
+        return unparkLatency;
+    }
+
+    public long getParks() {
+        return parkLatency.getCount() - rejectedParks;
+    }
+
+    public long getRejectedParks() {
+        return rejectedParks;
+    }
+
+    public long getUnparks() {
+        return unparks;
+    }
+
+    public int getFinalOccupancy() {
+        return finalOccupancy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d visits in %.2fs: %.0f ops/s, %d parked, %d rejected, %d unparked, %d/%d occupied at the end%n"
+                        + "park   latency us: %s%n"
+                        + "unpark latency us: %s",
+                visits, elapsedNanos / 1e9, getThroughput(), getParks(), rejectedParks, unparks, finalOccupancy, capacity,
+                percentiles(parkLatency), percentiles(unparkLatency));
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+    }
+}
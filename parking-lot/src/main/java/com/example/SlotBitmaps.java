@@ -0,0 +1,101 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// One bitmap per distinct row, size, color and make (case-insensitive), plus one for handicap cars
+// and one for occupied slots, each with a bit per slot. Composite queries AND and OR whole 64-slot
+// words, so their cost is capacity / 64 word operations plus the matches, however many conditions
+// they combine. Bits are set and cleared with atomic word updates, so parkers never block.
+//
+// A bitmap can be a moment behind the car in its slot, so callers check each match against the car
+// itself (see CarQuery); the bitmaps only have to narrow the search.
+class SlotBitmaps {
+    static final int ROW = 0;
+    static final int SIZE = 1;
+    static final int COLOR = 2;
+    static final int MAKE = 3;
+    private static final int ATTRIBUTES = 4;
+
+    private final int words;
+    private final AtomicReferenceArray<ParkedCar> carsBySlot; // the lot's, not a copy
+    private final AtomicLongArray occupied;
+    private final AtomicLongArray handicap;
+    private final List<Map<String, AtomicLongArray>> byValue = new ArrayList<>(ATTRIBUTES);
+
+    SlotBitmaps(AtomicReferenceArray<ParkedCar> carsBySlot) {
+        this.carsBySlot = carsBySlot;
+        words = (carsBySlot.length() + 63) >>> 6;
+        occupied = new AtomicLongArray(words);
+        handicap = new AtomicLongArray(words);
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            byValue.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    // null is a value of its own, e.g. tickets without a row
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    int words() {
+        return words;
+    }
+
+    void add(ParkedCar parked, Car car, Ticket ticket) {
+        int slot = parked.getSlot();
+        set(bitmap(ROW, ticket.getParkingRow()), slot);
+        set(bitmap(SIZE, car.getSize()), slot);
+        set(bitmap(COLOR, car.getColor()), slot);
+        set(bitmap(MAKE, car.getMake()), slot);
+        if (car.isHandicap()) {
+            set(handicap, slot);
+        }
+        set(occupied, slot);
+    }
+
+    void remove(ParkedCar parked, Car car, Ticket ticket) {
+        int slot = parked.getSlot();
+        clear(occupied, slot);
+        clear(bitmap(ROW, ticket.getParkingRow()), slot);
+        clear(bitmap(SIZE, car.getSize()), slot);
+        clear(bitmap(COLOR, car.getColor()), slot);
+        clear(bitmap(MAKE, car.getMake()), slot);
+        clear(handicap, slot);
+    }
+
+    ParkedCar carAt(int slot) {
+        return carsBySlot.get(slot);
+    }
+
+    private AtomicLongArray bitmap(int attribute, String value) {
+        return byValue.get(attribute).computeIfAbsent(normalize(value), key -> new AtomicLongArray(words));
+    }
+
+    // The bitmap for a value, or null if no car has ever had it
+    AtomicLongArray find(int attribute, String value) {
+        return byValue.get(attribute).get(normalize(value));
+    }
+
+    AtomicLongArray occupied() {
+        return occupied;
+    }
+
+    AtomicLongArray handicap() {
+        return handicap;
+    }
+
+    private static void set(AtomicLongArray bitmap, int slot) {
+        long bit = 1L << slot;
+        bitmap.accumulateAndGet(slot >>> 6, bit, (word, mask) -> word | mask);
+    }
+
+    private static void clear(AtomicLongArray bitmap, int slot) {
+        long bit = 1L << slot;
+        bitmap.accumulateAndGet(slot >>> 6, bit, (word, mask) -> word & ~mask);
+    }
+}
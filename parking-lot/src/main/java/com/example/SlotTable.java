@@ -0,0 +1,250 @@
+package com.example;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+// The lot's spots as a 32-way trie from slot number to the car parked there. Until a version is
+// frozen the trie is updated in place; freezing hands the current trie to the Version and starts a
+// new epoch, and a later write copies just the nodes on its path that are older than the epoch, so
+// only the first write under each frozen node pays for a copy and a lot nobody snapshots copies
+// nothing. Writers lock only the stripe of slots under one child of the root, freezing locks every
+// stripe for the O(1) hand-over, and two versions can be diffed by skipping the subtrees they share.
+class SlotTable {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final class Node {
+        final Object[] children;
+        final int epoch; // nodes from an earlier epoch belong to a frozen version and are never changed
+
+        Node(Object[] children, int epoch) {
+            this.children = children;
+            this.epoch = epoch;
+        }
+    }
+
+    private final int capacity;
+    private final int topShift;
+    private final ReentrantLock[] stripes = new ReentrantLock[WIDTH]; // by the root child a slot is under
+    private final int[] sizes = new int[WIDTH]; // cars under each root child, guarded by its stripe
+    private Node root; // replaced only with every stripe held; each child guarded by its stripe
+    private int epoch; // likewise
+    private volatile boolean changed; // written since the last freeze
+    private final AtomicLong sequences = new AtomicLong();
+    private volatile Version frozen; // the last version handed out
+
+    SlotTable(int capacity) {
+        this.capacity = capacity;
+        int shift = 0;
+        while (shift + BITS < 31 && (1L << (shift + BITS)) < capacity) {
+            shift += BITS;
+        }
+        this.topShift = shift;
+        for (int i = 0; i < WIDTH; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.root = new Node(new Object[WIDTH], 0);
+    }
+
+    void set(int slot, ParkedCar parked) {
+        int stripe = (slot >>> topShift) & MASK;
+        ReentrantLock lock = stripes[stripe];
+        lock.lock();
+        try {
+            Node node = root;
+            for (int shift = topShift; shift > 0; shift -= BITS) {
+                int index = (slot >>> shift) & MASK;
+                Node child = (Node) node.children[index];
+                if (child == null || child.epoch != epoch) {
+                    child = copyOf(child);
+                    node.children[index] = child;
+                }
+                node = child;
+            }
+
+            Object previous = node.children[slot & MASK];
+            node.children[slot & MASK] = parked;
+            sizes[stripe] += (previous == null ? 0 : -1) + (parked == null ? 0 : 1);
+            if (!changed) {
+                changed = true; // read first, so writers between freezes don't keep dirtying a shared line
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Node copyOf(Node node) {
+        return new Node(node == null ? new Object[WIDTH] : node.children.clone(), epoch);
+    }
+
+    // Captures the current contents as a new version
+    Version freeze() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+        try {
+            int size = 0;
+            for (int stripeSize : sizes) {
+                size += stripeSize;
+            }
+            Version version = new Version(root, size, sequences.getAndIncrement());
+            epoch++;
+            root = copyOf(root); // the version keeps the old root, so writers never copy this one
+            changed = false;
+            frozen = version;
+            return version;
+        } finally {
+            for (ReentrantLock lock : stripes) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Like freeze(), but hands back the last version if nothing has changed since, so readers
+    // polling a quiet lot don't each get a new sequence number
+    Version latest() {
+        Version last = frozen;
+        return last != null && !changed ? last : freeze();
+    }
+
+    // An immutable view of every occupied slot at one point in time
+    final class Version {
+        private final Node root;
+        private final int size;
+        private final long sequence;
+
+        private Version(Node root, int size, long sequence) {
+            this.root = root;
+            this.size = size;
+            this.sequence = sequence;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        ParkedCar get(int slot) {
+            if (slot < 0 || slot >= capacity) {
+                return null;
+            }
+            Node node = root;
+            for (int shift = topShift; shift > 0; shift -= BITS) {
+                node = (Node) node.children[(slot >>> shift) & MASK];
+                if (node == null) {
+                    return null;
+                }
+            }
+            return (ParkedCar) node.children[slot & MASK];
+        }
+
+        // Occupied slots in slot order, walked lazily
+        Iterator<ParkedCar> iterator() {
+            return new Cursor();
+        }
+
+        private final class Cursor implements Iterator<ParkedCar> {
+            private final Node[] path = new Node[topShift / BITS + 1];
+            private final int[] index = new int[path.length];
+            private int depth;
+            private ParkedCar next;
+
+            Cursor() {
+                path[0] = root;
+                index[0] = -1;
+                advance();
+            }
+
+            private void advance() {
+                next = null;
+                while (depth >= 0) {
+                    int i = ++index[depth];
+                    if (i == WIDTH) {
+                        depth--;
+                        continue;
+                    }
+                    Object child = path[depth].children[i];
+                    if (child == null) {
+                        continue;
+                    }
+                    if (depth == path.length - 1) {
+                        next = (ParkedCar) child;
+                        return;
+                    }
+                    path[++depth] = (Node) child;
+                    index[depth] = -1;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ParkedCar next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ParkedCar current = next;
+                advance();
+                return current;
+            }
+        }
+
+        // Visits occupied slots in slot order
+        void forEach(BiConsumer<Integer, ParkedCar> action) {
+            walk(root, topShift, 0, action);
+        }
+
+        private void walk(Node node, int shift, int base, BiConsumer<Integer, ParkedCar> action) {
+            for (int i = 0; i < WIDTH; i++) {
+                Object child = node.children[i];
+                if (child == null) {
+                    continue;
+                }
+                int slot = base | (i << shift);
+                if (shift == 0) {
+                    action.accept(slot, (ParkedCar) child);
+                } else {
+                    walk((Node) child, shift - BITS, slot, action);
+                }
+            }
+        }
+
+        // Visits, in slot order, every slot whose car differs between older and this version
+        void forEachChangedSince(Version older, IntConsumer action) {
+            diff(older.root, root, topShift, 0, action);
+        }
+
+        private void diff(Node before, Node after, int shift, int base, IntConsumer action) {
+            if (before == after) {
+                return; // shared subtree, nothing changed below
+            }
+            for (int i = 0; i < WIDTH; i++) {
+                Object left = before == null ? null : before.children[i];
+                Object right = after == null ? null : after.children[i];
+                if (left == right) {
+                    continue;
+                }
+                int slot = base | (i << shift);
+                if (shift == 0) {
+                    action.accept(slot);
+                } else {
+                    diff((Node) left, (Node) right, shift - BITS, slot, action);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example;
+
+// Hands out numbered parking slots, lowest (nearest to the entrance) first.
+// Free slots are tracked in a hierarchy of bitmaps: a set bit in level 0 is a free slot,
+// and a set bit in level n + 1 means the matching word in level n still has a free slot.
+// Allocating and releasing touch one word per level, so a lot of 262,144 bays costs 3 words.
+// Calls are serialised on the allocator; ParkingLot reserves capacity before calling in.
+class SpotAllocator {
+    private final int capacity;
+    private final long[][] levels;
+    private int freeSlots;
+
+    SpotAllocator(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.capacity = capacity;
+        this.freeSlots = capacity;
+
+        int depth = 1;
+        for (int words = wordsFor(capacity); words > 1; words = wordsFor(words)) {
+            depth++;
+        }
+        levels = new long[depth][];
+
+        int bits = capacity;
+        for (int level = 0; level < depth; level++) {
+            long[] words = new long[Math.max(1, wordsFor(bits))];
+            for (int i = 0; i < bits; i++) {
+                words[i >>> 6] |= 1L << i;
+            }
+            levels[level] = words;
+            bits = words.length;
+        }
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    synchronized int getFreeSlots() {
+        return freeSlots;
+    }
+
+    // Lowest free slot without claiming it, or -1 when every slot is taken
+    synchronized int nearestFree() {
+        int top = levels.length - 1;
+        if (levels[top][0] == 0L) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int level = top; level >= 0; level--) {
+            index = (index << 6) + Long.numberOfTrailingZeros(levels[level][index]);
+        }
+        return index;
+    }
+
+    // Claims the lowest free slot, or returns -1 when every slot is taken
+    synchronized int allocate() {
+        int slot = nearestFree();
+        if (slot >= 0) {
+            clear(slot);
+        }
+        return slot;
+    }
+
+    // Claims a specific slot; returns false if it is out of range or already taken
+    synchronized boolean allocate(int slot) {
+        if (!isFree(slot)) {
+            return false;
+        }
+        clear(slot);
+        return true;
+    }
+
+    synchronized void release(int slot) {
+        if (slot < 0 || slot >= capacity || isFree(slot)) {
+            return;
+        }
+
+        int index = slot;
+        for (long[] words : levels) {
+            long before = words[index >>> 6];
+            words[index >>> 6] = before | (1L << index);
+            if (before != 0L) {
+                break; // parent levels already know this word has room
+            }
+            index >>>= 6;
+        }
+        freeSlots++;
+    }
+
+    synchronized boolean isFree(int slot) {
+        return slot >= 0 && slot < capacity && (levels[0][slot >>> 6] & (1L << slot)) != 0L;
+    }
+
+    private void clear(int slot) {
+        int index = slot;
+        for (long[] words : levels) {
+            long after = words[index >>> 6] & ~(1L << index);
+            words[index >>> 6] = after;
+            if (after != 0L) {
+                break; // word still has room, parent levels stay as they are
+            }
+            index >>>= 6;
+        }
+        freeSlots--;
+    }
+}
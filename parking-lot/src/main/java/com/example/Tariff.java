@@ -0,0 +1,141 @@
+package com.example;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Prices a stay from a weekly rate schedule: a base hourly rate, optional time-of-day bands per
+// weekday (later bands win where they overlap), a grace period, a cap per 24 hours from arrival and
+// a multiplier per car size. Stays are billed per whole minute.
+//
+// Each size gets a precomputed RateTable the first time it is priced, so charge() is O(1) however
+// long the stay. Configure a tariff before handing it to lots; changing it afterwards rebuilds the
+// tables but is not synchronized with charges already being computed.
+public class Tariff {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private final double ratePerHour;
+    private final double[] bandRates = new double[MINUTES_PER_WEEK]; // per hour, NaN where no band applies
+    private final Map<String, Double> sizeMultipliers = new HashMap<>();
+    private long graceMinutes;
+    private double dailyCap = Double.POSITIVE_INFINITY;
+    private volatile Map<String, RateTable> tables = new ConcurrentHashMap<>();
+
+    public Tariff(double ratePerHour) {
+        this.ratePerHour = ratePerHour;
+        Arrays.fill(bandRates, Double.NaN);
+    }
+
+    // Charges ratePerHour between from and to on the given days, or every day if none are given.
+    // A band whose end is not after its start runs past midnight into the next day.
+    public synchronized Tariff band(LocalTime from, LocalTime to, double ratePerHour, DayOfWeek... days) {
+        DayOfWeek[] applies = days.length == 0 ? DayOfWeek.values() : days;
+        int start = from.getHour() * 60 + from.getMinute();
+        int end = to.getHour() * 60 + to.getMinute();
+        int length = end > start ? end - start : MINUTES_PER_DAY - start + end;
+        for (DayOfWeek day : applies) {
+            int first = (day.getValue() - 1) * MINUTES_PER_DAY + start;
+            for (int i = 0; i < length; i++) {
+                bandRates[(first + i) % MINUTES_PER_WEEK] = ratePerHour;
+            }
+        }
+        return rebuilt();
+    }
+
+    // Stays no longer than this are free
+    public synchronized Tariff gracePeriod(Duration grace) {
+        graceMinutes = grace.toMinutes();
+        return rebuilt();
+    }
+
+    // The most charged for any 24 hours counted from arrival
+    public synchronized Tariff dailyCap(double cap) {
+        dailyCap = cap;
+        return rebuilt();
+    }
+
+    // Scales every rate and the daily cap for cars of this size (see Car.getSize())
+    public synchronized Tariff sizeRate(String size, double multiplier) {
+        sizeMultipliers.put(size.toLowerCase(Locale.ROOT), multiplier);
+        return rebuilt();
+    }
+
+    private Tariff rebuilt() {
+        tables = new ConcurrentHashMap<>();
+        return this;
+    }
+
+    // What a car of this size owes for a stay from arrival to departure, rounded to cents
+    public double charge(String size, LocalDateTime arrival, LocalDateTime departure) {
+        long minutes = Duration.between(arrival, departure).toMinutes();
+        if (minutes <= graceMinutes) {
+            return 0.0;
+        }
+        int startMinute = (arrival.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY
+                + arrival.getHour() * 60 + arrival.getMinute();
+        double charge = tableFor(size).cost(startMinute, minutes);
+        return Math.round(charge * 100.0) / 100.0;
+    }
+
+    private RateTable tableFor(String size) {
+        String key = size == null ? "" : size.toLowerCase(Locale.ROOT);
+        return tables.computeIfAbsent(key, this::buildTable);
+    }
+
+    private synchronized RateTable buildTable(String size) {
+        double multiplier = sizeMultipliers.getOrDefault(size, 1.0);
+        double[] perMinute = new double[MINUTES_PER_WEEK];
+        for (int i = 0; i < MINUTES_PER_WEEK; i++) {
+            double hourly = Double.isNaN(bandRates[i]) ? ratePerHour : bandRates[i];
+            perMinute[i] = hourly * multiplier / 60.0;
+        }
+        return new RateTable(perMinute, dailyCap * multiplier);
+    }
+
+    // Prefix sums over the week, so any stay is priced with a handful of lookups:
+    //   cumulative[i]          cost of the first i minutes of a two-week run starting Monday 00:00
+    //   capped[t * 15 + d]     capped cost of d consecutive whole days all starting at minute-of-day t,
+    //                          the first on Monday (d runs to 14 so a week can start on any weekday)
+    static final class RateTable {
+        private final double[] cumulative = new double[2 * MINUTES_PER_WEEK + 1];
+        private final double[] capped = new double[MINUTES_PER_DAY * 15];
+        private final double cap;
+
+        RateTable(double[] perMinute, double cap) {
+            this.cap = cap;
+            for (int i = 0; i < 2 * MINUTES_PER_WEEK; i++) {
+                cumulative[i + 1] = cumulative[i] + perMinute[i % MINUTES_PER_WEEK];
+            }
+            for (int t = 0; t < MINUTES_PER_DAY; t++) {
+                for (int d = 0; d < 14; d++) {
+                    int start = (d % 7) * MINUTES_PER_DAY + t;
+                    capped[t * 15 + d + 1] = capped[t * 15 + d] + cappedSpan(start, MINUTES_PER_DAY);
+                }
+            }
+        }
+
+        private double cappedSpan(int startMinute, int minutes) {
+            return Math.min(cap, cumulative[startMinute + minutes] - cumulative[startMinute]);
+        }
+
+        double cost(int startMinute, long minutes) {
+            int minuteOfDay = startMinute % MINUTES_PER_DAY;
+            int firstDay = startMinute / MINUTES_PER_DAY;
+            long days = minutes / MINUTES_PER_DAY;
+            int rest = (int) (minutes % MINUTES_PER_DAY);
+
+            int row = minuteOfDay * 15;
+            int remainingDays = (int) (days % 7);
+            double wholeDays = (days / 7) * capped[row + 7]
+                    + capped[row + firstDay + remainingDays] - capped[row + firstDay];
+            int lastStart = ((firstDay + remainingDays) % 7) * MINUTES_PER_DAY + minuteOfDay;
+            return wholeDays + cappedSpan(lastStart, rest);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class Ticket {
     private String ticketId;
@@ -37,4 +38,25 @@ public class Ticket {
     public String getParkingRow() {
         return parkingRow;
     }
+
+    // Two tickets are the same ticket if they carry the same id, spot and time, e.g. a stub read
+    // back in after a restart; a forged stub with a guessed id won't match the spot and time.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Ticket)) {
+            return false;
+        }
+        Ticket other = (Ticket) o;
+        return Objects.equals(ticketId, other.ticketId)
+                && Objects.equals(parkingSpot, other.parkingSpot)
+                && Objects.equals(parkedAt, other.parkedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(ticketId);
+    }
 }
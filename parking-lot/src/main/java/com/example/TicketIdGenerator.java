@@ -0,0 +1,6 @@
+package com.example;
+
+// Issues the ticket IDs printed on ticket stubs; every ID from one generator must be unique
+public interface TicketIdGenerator {
+    String nextTicketId();
+}
@@ -0,0 +1,111 @@
+package com.example;
+import java.util.ArrayList;
+import java.util.List;
+
+// Hashed timing wheel: timers hang off one of a fixed ring of buckets by deadline tick, so
+// scheduling and cancelling are O(1) and advancing visits only the buckets of the ticks that
+// passed, never every timer. A timer due more than one lap ahead stays in its bucket until its lap.
+// Time is whatever the caller passes in (a lot's clock), nothing runs on its own.
+class TimingWheel {
+    static final class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private Timeout previous;
+        private Timeout next;
+        private int bucket = -1; // -1 once fired or cancelled
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout[] buckets; // heads of doubly linked lists
+    private final int mask;
+    private long currentTick; // the next tick to process
+    private int pending;
+
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    // Runs task on the first advanceTo at or after deadlineMillis (rounded up to a tick)
+    synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+        long deadlineTick = Math.max(currentTick, (deadlineMillis + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(deadlineTick, task);
+        link(timeout, (int) (deadlineTick & mask));
+        pending++;
+        return timeout;
+    }
+
+    // False if the timer already fired or was cancelled
+    synchronized boolean cancel(Timeout timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        pending--;
+        return true;
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+
+    // Takes every timer due by nowMillis off the wheel and returns their tasks, to be run by the
+    // caller outside the wheel's lock
+    synchronized List<Runnable> advanceTo(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Runnable> due = new ArrayList<>();
+        if (nowTick < currentTick || pending == 0) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return due;
+        }
+        // after a long gap one pass over every bucket is enough
+        long last = Math.min(nowTick, currentTick + buckets.length - 1);
+        for (long tick = currentTick; tick <= last; tick++) {
+            Timeout timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.deadlineTick <= nowTick) {
+                    unlink(timeout);
+                    pending--;
+                    due.add(timeout.task);
+                }
+                timeout = next;
+            }
+        }
+        currentTick = nowTick + 1;
+        return due;
+    }
+
+    private void link(Timeout timeout, int bucket) {
+        timeout.bucket = bucket;
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.previous == null) {
+            buckets[timeout.bucket] = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Replays a TrafficTrace against one lot, or against several lots through a ParkingAttendant, and
+// reports throughput, latency percentiles, rejected parks and the occupancy left at the end.
+//
+// Visits are dealt to the worker threads by license plate, so every arrival and departure of a car
+// is replayed by the same thread in order; events for different cars run concurrently. With a
+// finite speedup each event waits for its time in the trace (speedup 60 plays an hour in a minute)
+// and latency is measured from when the event was due, so a worker falling behind shows up in the
+// percentiles instead of hiding. With an infinite speedup every worker goes as fast as it can and
+// latency is the call alone.
+//
+// Which of two arrivals gets the last space decides whose departure frees one later, so with more
+// than one worker rejected parks depend on how the threads were scheduled. runInLockstep trades
+// the concurrency away for repeatable results: the workers share a logical clock, every event in
+// the trace has a turn, and a worker waits for its event's turn before replaying it.
+public class TrafficSimulator {
+    private final Function<Car, Ticket> park;
+    private final Function<Ticket, Car> unpark;
+    private final List<ParkingLot> lots;
+
+    public TrafficSimulator(ParkingLot lot) {
+        this.park = lot::parkCar;
+        this.unpark = lot::unparkCar;
+        this.lots = Collections.singletonList(lot);
+    }
+
+    // Arrivals go through an attendant, which picks a lot by the car's handicap flag and size
+    public TrafficSimulator(String attendantName, List<ParkingLot> lots) {
+        ParkingFacility facility = new ParkingFacility(attendantName, lots);
+        this.park = car -> facility.parkCar(car, car.isHandicap(), "large".equalsIgnoreCase(car.getSize()));
+        this.unpark = facility::unparkCar;
+        this.lots = new ArrayList<>(lots);
+    }
+
+    // TrafficSimulator <poisson|rush-hour|surge|trace.csv> [lots] [capacity per lot] [threads] [speedup|lockstep]
+    // Generated traces cover an hour with stays of 30 minutes on average, at a base rate that would
+    // keep the lots about 80% full; the speedup defaults to "as fast as possible".
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: TrafficSimulator <poisson|rush-hour|surge|trace.csv> [lots] [capacity per lot] [threads] [speedup|lockstep]");
+            System.exit(2);
+        }
+        int lotCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        boolean lockstep = args.length > 4 && args[4].equals("lockstep");
+        double speedup = args.length > 4 && !lockstep ? Double.parseDouble(args[4]) : Double.POSITIVE_INFINITY;
+
+        Duration hour = Duration.ofHours(1);
+        Duration stay = Duration.ofMinutes(30);
+        double base = 0.8 * lotCount * capacity / stay.getSeconds(); // keeps a steady lot about 80% full
+        TrafficTrace trace;
+        switch (args[0]) {
+            case "poisson":
+                trace = TrafficTrace.poisson(base, hour, stay, 1);
+                break;
+            case "rush-hour":
+                trace = TrafficTrace.rushHour(base, base * 2, Duration.ofMinutes(30), Duration.ofMinutes(8), hour, stay, 1);
+                break;
+            case "surge":
+                trace = TrafficTrace.surge(base, base * 5, Duration.ofMinutes(40), Duration.ofMinutes(5), hour, stay, 1);
+                break;
+            default:
+                try (Reader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+                    trace = TrafficTrace.readCsv(in);
+                }
+        }
+
+        List<ParkingLot> lots = new ArrayList<>();
+        for (int i = 0; i < lotCount; i++) {
+            lots.add(new ParkingLot(capacity));
+        }
+        TrafficSimulator simulator = lotCount == 1 ? new TrafficSimulator(lots.get(0)) : new TrafficSimulator("Simulator", lots);
+        System.out.println(lockstep ? simulator.runInLockstep(trace, threads) : simulator.run(trace, threads, speedup));
+    }
+
+    public SimulationReport run(TrafficTrace trace, int threads, double speedup) throws InterruptedException {
+        return replay(trace, threads, speedup, false);
+    }
+
+    // As fast as possible, with the events of the trace replayed one at a time in trace order, so
+    // the report's counts come out the same for any number of threads
+    public SimulationReport runInLockstep(TrafficTrace trace, int threads) throws InterruptedException {
+        return replay(trace, threads, Double.POSITIVE_INFINITY, true);
+    }
+
+    private SimulationReport replay(TrafficTrace trace, int threads, double speedup, boolean lockstep) throws InterruptedException {
+        List<TrafficTrace.Visit> visits = trace.getVisits();
+        Ticket[] tickets = new Ticket[visits.size()]; // each slot is only touched by the visit's worker
+        LatencyHistogram parkLatency = new LatencyHistogram();
+        LatencyHistogram unparkLatency = new LatencyHistogram();
+        Counter rejected = new Counter();
+        Counter unparked = new Counter();
+
+        int workers = Math.max(1, threads);
+        long[] turnOf = lockstep ? turnsOf(visits) : null;
+        AtomicLong turn = new AtomicLong(); // the logical clock; -1 once a worker has failed
+        List<Thread> threadList = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            long[] schedule = scheduleFor(visits, w, workers);
+            threadList.add(new Thread(() -> {
+                for (long event : schedule) {
+                    if (!lockstep) {
+                        long due = System.nanoTime();
+                        if (speedup != Double.POSITIVE_INFINITY) {
+                            TrafficTrace.Visit v = visits.get((int) (event >>> 1));
+                            long offset = (event & 1) == 1 ? v.getDepartureMillis() : v.getArrivalMillis();
+                            due = start + (long) (offset * 1_000_000L / speedup);
+                            long wait = due - System.nanoTime();
+                            if (wait > 0) {
+                                LockSupport.parkNanos(wait);
+                            }
+                        }
+                        replay(visits, event, due, tickets, parkLatency, unparkLatency, rejected, unparked);
+                        continue;
+                    }
+                    long mine = turnOf[(int) event];
+                    long now;
+                    while ((now = turn.get()) != mine) {
+                        if (now < 0) {
+                            return; // another worker failed, so this turn will never come
+                        }
+                        Thread.yield();
+                    }
+                    boolean replayed = false;
+                    try {
+                        replay(visits, event, System.nanoTime(), tickets, parkLatency, unparkLatency, rejected, unparked);
+                        replayed = true;
+                    } finally {
+                        turn.set(replayed ? mine + 1 : -1);
+                    }
+                }
+            }, "traffic-simulator-" + w));
+        }
+        for (Thread thread : threadList) {
+            thread.start();
+        }
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int occupied = 0;
+        int capacity = 0;
+        for (ParkingLot lot : lots) {
+            occupied += lot.getNumberOfParkedCars();
+            capacity += lot.getCapacity();
+            lot.updateFullSign();
+        }
+        return new SimulationReport(visits.size(), elapsed, parkLatency, unparkLatency, rejected.get(), unparked.get(),
+                occupied, capacity);
+    }
+
+    private void replay(List<TrafficTrace.Visit> visits, long event, long begin, Ticket[] tickets,
+            LatencyHistogram parkLatency, LatencyHistogram unparkLatency, Counter rejected, Counter unparked) {
+        int visit = (int) (event >>> 1);
+        if ((event & 1) == 1) {
+            if (tickets[visit] == null) {
+                return; // the car was turned away on arrival
+            }
+            if (unpark.apply(tickets[visit]) != null) {
+                unparked.increment();
+            }
+            unparkLatency.recordSince(begin);
+        } else {
+            tickets[visit] = park.apply(visits.get(visit).getCar());
+            parkLatency.recordSince(begin);
+            if (tickets[visit] == null) {
+                rejected.increment();
+            }
+        }
+    }
+
+    // Each event's turn on the logical clock, indexed by packed event; every worker's schedule
+    // is a subsequence of this order, so the turns a worker waits for only ever increase
+    private static long[] turnsOf(List<TrafficTrace.Visit> visits) {
+        long[] all = scheduleFor(visits, 0, 1);
+        long[] turns = new long[visits.size() * 2];
+        for (int i = 0; i < all.length; i++) {
+            turns[(int) all[i]] = i;
+        }
+        return turns;
+    }
+
+    // This worker's events in time order, arrivals first and then by visit within a millisecond,
+    // packed as visit index << 1 | (1 for a departure). A car's visits all go to one worker, so a
+    // car that comes back is never parked again before its earlier departure has been replayed.
+    private static long[] scheduleFor(List<TrafficTrace.Visit> visits, int worker, int workers) {
+        List<long[]> events = new ArrayList<>(); // {time, packed event}
+        for (int i = 0; i < visits.size(); i++) {
+            TrafficTrace.Visit visit = visits.get(i);
+            if (Math.floorMod(Objects.hashCode(visit.getCar().getLicensePlate()), workers) != worker) {
+                continue;
+            }
+            events.add(new long[] {visit.getArrivalMillis(), (long) i << 1});
+            if (visit.getDepartureMillis() >= 0) {
+                events.add(new long[] {visit.getDepartureMillis(), ((long) i << 1) | 1});
+            }
+        }
+        events.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : (a[1] & 1) != (b[1] & 1) ? Long.compare(a[1] & 1, b[1] & 1) : Long.compare(a[1], b[1]));
+        long[] schedule = new long[events.size()];
+        for (int i = 0; i < schedule.length; i++) {
+            schedule[i] = events.get(i)[1];
+        }
+        return schedule;
+    }
+}
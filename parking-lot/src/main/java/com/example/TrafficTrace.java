@@ -0,0 +1,167 @@
+package com.example;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Visits to replay against a lot with TrafficSimulator: when each car arrives and how long it stays,
+// in milliseconds from the start of the trace. Traces are generated from an arrival-rate profile
+// (steady Poisson, a rush-hour peak, a sudden surge) or read from a recorded CSV file.
+//
+// CSV format, one visit per line after a header:
+//   arrival_ms,departure_ms,plate,color,make,model,size,handicap
+// An empty departure_ms means the car is still parked at the end of the trace.
+public class TrafficTrace {
+    static final String CSV_HEADER = "arrival_ms,departure_ms,plate,color,make,model,size,handicap";
+    private static final String[] COLORS = {"White", "Black", "Silver", "Gray", "Blue", "Red"};
+    private static final String[] MAKES = {"Toyota", "Honda", "Ford", "BMW", "Audi", "Kia"};
+    private static final String[] SIZES = {"small", "medium", "medium", "medium", "large"};
+
+    // Expected arrivals per second at a point in the trace
+    public interface RateProfile {
+        double arrivalsPerSecond(long offsetMillis);
+    }
+
+    public static final class Visit {
+        private final long arrivalMillis;
+        private final long departureMillis; // -1 if the car never leaves
+        private final Car car;
+
+        public Visit(long arrivalMillis, long departureMillis, Car car) {
+            this.arrivalMillis = arrivalMillis;
+            this.departureMillis = departureMillis;
+            this.car = car;
+        }
+
+        public long getArrivalMillis() {
+            return arrivalMillis;
+        }
+
+        public long getDepartureMillis() {
+            return departureMillis;
+        }
+
+        public Car getCar() {
+            return car;
+        }
+    }
+
+    private final List<Visit> visits;
+
+    public TrafficTrace(List<Visit> visits) {
+        List<Visit> sorted = new ArrayList<>(visits);
+        sorted.sort((a, b) -> Long.compare(a.arrivalMillis, b.arrivalMillis));
+        this.visits = Collections.unmodifiableList(sorted);
+    }
+
+    public List<Visit> getVisits() {
+        return visits;
+    }
+
+    // A steady stream of arrivals at the given rate
+    public static TrafficTrace poisson(double arrivalsPerSecond, Duration length, Duration meanStay, long seed) {
+        return generate(offset -> arrivalsPerSecond, arrivalsPerSecond, length, meanStay, seed);
+    }
+
+    // baseRate all day, rising smoothly (a bell curve of the given width) to peakRate at peakAt
+    public static TrafficTrace rushHour(double baseRate, double peakRate, Duration peakAt, Duration peakWidth,
+                                        Duration length, Duration meanStay, long seed) {
+        double center = peakAt.toMillis();
+        double width = Math.max(1, peakWidth.toMillis());
+        RateProfile profile = offset -> {
+            double distance = (offset - center) / width;
+            return baseRate + (peakRate - baseRate) * Math.exp(-0.5 * distance * distance);
+        };
+        return generate(profile, Math.max(baseRate, peakRate), length, meanStay, seed);
+    }
+
+    // baseRate, jumping to surgeRate for surgeLength from surgeAt, e.g. the end of a stadium event
+    public static TrafficTrace surge(double baseRate, double surgeRate, Duration surgeAt, Duration surgeLength,
+                                     Duration length, Duration meanStay, long seed) {
+        long from = surgeAt.toMillis();
+        long to = from + surgeLength.toMillis();
+        return generate(offset -> offset >= from && offset < to ? surgeRate : baseRate,
+                Math.max(baseRate, surgeRate), length, meanStay, seed);
+    }
+
+    // Non-homogeneous Poisson arrivals by thinning: candidates at maxRate, each kept with probability
+    // rate/maxRate. Stays are exponential with the given mean; departures past the end are dropped.
+    public static TrafficTrace generate(RateProfile profile, double maxRate, Duration length, Duration meanStay, long seed) {
+        Random random = new Random(seed);
+        long end = length.toMillis();
+        double meanStayMillis = meanStay.toMillis();
+        List<Visit> visits = new ArrayList<>();
+        double offset = 0;
+        while (true) {
+            offset += -Math.log(1 - random.nextDouble()) / maxRate * 1000.0;
+            if (offset >= end) {
+                break;
+            }
+            long arrival = (long) offset;
+            if (random.nextDouble() * maxRate > profile.arrivalsPerSecond(arrival)) {
+                continue;
+            }
+            long departure = arrival + 1 + (long) (-Math.log(1 - random.nextDouble()) * meanStayMillis);
+            int n = visits.size();
+            Car car = new Car("SIM" + n, COLORS[random.nextInt(COLORS.length)], MAKES[random.nextInt(MAKES.length)],
+                    "Model", SIZES[random.nextInt(SIZES.length)], random.nextInt(20) == 0);
+            visits.add(new Visit(arrival, departure < end ? departure : -1, car));
+        }
+        return new TrafficTrace(visits);
+    }
+
+    public static TrafficTrace readCsv(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line = reader.readLine();
+        if (line == null || !line.trim().equals(CSV_HEADER)) {
+            throw new IOException("Expected CSV header: " + CSV_HEADER);
+        }
+        List<Visit> visits = new ArrayList<>();
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 8) {
+                throw new IOException("Line " + lineNumber + ": expected 8 fields but found " + fields.length);
+            }
+            try {
+                long arrival = Long.parseLong(fields[0].trim());
+                long departure = fields[1].trim().isEmpty() ? -1 : Long.parseLong(fields[1].trim());
+                Car car = new Car(fields[2], emptyToNull(fields[3]), emptyToNull(fields[4]), emptyToNull(fields[5]),
+                        emptyToNull(fields[6]), Boolean.parseBoolean(fields[7].trim()));
+                visits.add(new Visit(arrival, departure, car));
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new TrafficTrace(visits);
+    }
+
+    public void writeCsv(Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+        for (Visit visit : visits) {
+            Car car = visit.car;
+            out.write(visit.arrivalMillis + "," + (visit.departureMillis < 0 ? "" : visit.departureMillis) + ","
+                    + car.getLicensePlate() + "," + nullToEmpty(car.getColor()) + "," + nullToEmpty(car.getMake()) + ","
+                    + nullToEmpty(car.getModel()) + "," + nullToEmpty(car.getSize()) + "," + car.isHandicap() + "\n");
+        }
+        out.flush();
+    }
+
+    private static String emptyToNull(String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.BatchResult;
+import com.example.Car;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class BatchParkingTest {
+
+    private List<Car> cars(String prefix, int count) {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cars.add(new Car(prefix + i, "White", "Make", "Model", "small", false));
+        }
+        return cars;
+    }
+
+    @Test
+    void testParkAllReportsCarsThatDidNotFit() {
+        ParkingLot parkingLot = new ParkingLot(5);
+        List<Car> shuttle = cars("SHUTTLE", 8);
+
+        BatchResult<Car, Ticket> result = parkingLot.parkAll(shuttle);
+
+        assertEquals(5, result.getSucceeded().size(), "Only 5 cars fit in the lot.");
+        assertEquals(shuttle.subList(5, 8), result.getFailed(), "The last 3 cars should be turned away.");
+        assertTrue(parkingLot.isFullSignDisplayed(), "The batch should update the full sign once it fills the lot.");
+        Set<String> spots = new HashSet<>();
+        for (Ticket ticket : result.getSucceeded().values()) {
+            assertTrue(spots.add(ticket.getParkingSpot()), "Each car should get its own spot.");
+        }
+    }
+
+    @Test
+    void testUnparkAllFreesTheLotAndRejectsUsedTickets() {
+        ParkingLot parkingLot = new ParkingLot(5);
+        List<Ticket> tickets = new ArrayList<>(parkingLot.parkAll(cars("EVENT", 5)).getSucceeded().values());
+        parkingLot.unparkCar(tickets.get(0));
+
+        BatchResult<Ticket, Car> result = parkingLot.unparkAll(tickets);
+
+        assertEquals(4, result.getSucceeded().size(), "Four cars were still parked.");
+        assertEquals(Arrays.asList(tickets.get(0)), result.getFailed(), "An already used ticket should be reported.");
+        assertFalse(parkingLot.isFullSignDisplayed(), "The lot is empty again.");
+        assertEquals(5, parkingLot.getNumberOfFreeSpaces(), "Every space should be free.");
+    }
+
+    @Test
+    void testAttendantSpreadsABatchAcrossLots() {
+        List<ParkingLot> parkingLots = Arrays.asList(new ParkingLot(10), new ParkingLot(10), new ParkingLot(4));
+        parkingLots.get(0).parkAll(cars("EARLY", 4));
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", parkingLots);
+
+        BatchResult<Car, Ticket> result = attendant.parkAll(cars("BUS", 16));
+
+        assertEquals(16, result.getSucceeded().size(), "The whole batch fits across the lots.");
+        assertEquals(8, parkingLots.get(0).getNumberOfParkedCars(), "The busiest lot should only be topped up.");
+        assertEquals(8, parkingLots.get(1).getNumberOfParkedCars(), "Cars should be spread evenly.");
+        assertEquals(4, parkingLots.get(2).getNumberOfParkedCars(), "The small lot should be filled.");
+    }
+
+    @Test
+    void testAttendantAcceptsCollectionsThatRejectNulls() {
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(new ParkingLot(10)));
+        Set<Car> batch = ConcurrentHashMap.newKeySet(); // contains(null) throws
+        batch.addAll(cars("SET", 3));
+
+        assertEquals(3, attendant.parkAll(batch).getSucceeded().size(), "A null-hostile collection should park normally.");
+    }
+}
@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+class CarQueryTest {
+
+    @Test
+    void testCompositeQueries() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(500, clock);
+        for (int i = 0; i < 300; i++) {
+            String color = i % 3 == 0 ? "Red" : "Blue";
+            String size = i % 5 == 0 ? "large" : "small";
+            parkingLot.parkCar(new Car("CAR" + i, color, i % 2 == 0 ? "Ford" : "Kia", "Model", size, i % 7 == 0));
+        }
+        clock.advance(Duration.ofHours(2));
+        Ticket late = parkingLot.parkCar(new Car("LATE1", "RED", "Ford", "Model", "LARGE", false));
+
+        assertEquals(21, parkingLot.query().color("red").size("large").count(), "Red large cars: every 15th, plus the late one.");
+        assertEquals(11, parkingLot.query().color("Red").make("ford").size("large").count(), "Red large Fords: every 30th, plus the late one.");
+        assertEquals(1, parkingLot.query().color("red").size("large").parkedWithin(Duration.ofHours(1)).count(), "Only the late car arrived in the last hour.");
+        assertEquals(late, parkingLot.query().color("red").parkedWithin(Duration.ofHours(1)).tickets().values().iterator().next(), "The query should return the late car's ticket.");
+        assertEquals(43, parkingLot.query().handicap(true).count(), "Every 7th car is a handicap car.");
+        assertEquals(258, parkingLot.query().handicap(false).count(), "The rest are not.");
+        assertEquals(0, parkingLot.query().color("Green").count(), "No green cars are parked.");
+        assertEquals(0, parkingLot.query().rows("A").count(), "No car has a row yet.");
+    }
+
+    @Test
+    void testQueriesFollowUnparks() {
+        ParkingLot parkingLot = new ParkingLot(100);
+        Ticket red = parkingLot.parkCar(new Car("RED1", "Red", "BMW", "M3", "small", true));
+        parkingLot.parkCar(new Car("RED2", "Red", "Audi", "A4", "small", true));
+
+        parkingLot.unparkCar(red);
+
+        Map<Car, String> redCars = parkingLot.query().color("red").handicap(true).spots();
+        assertEquals(1, redCars.size(), "The unparked car should leave the bitmaps.");
+        assertEquals("Spot_2", redCars.values().iterator().next(), "The remaining car is in the second spot.");
+        assertEquals(1, parkingLot.findCarsByColor("Red").size(), "findCarsByColor runs on the same bitmaps.");
+        assertTrue(parkingLot.findCarsByMake("BMW").isEmpty(), "findCarsByMake runs on the same bitmaps.");
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.SequenceTicketIdGenerator;
+import com.example.Ticket;
+
+import java.time.Clock;
+import java.util.Map;
+
+class CompactStorageTest {
+
+    private static ParkingLot compactLot(int capacity) {
+        return new ParkingLot(capacity, Clock.systemUTC(), new SequenceTicketIdGenerator(1), ParkingLot.StorageMode.COMPACT);
+    }
+
+    @Test
+    void testCompactLotReturnsEqualCarsAndTickets() {
+        ParkingLot parkingLot = compactLot(10);
+        Car car = new Car("KA01", "Red", "Honda", "Civic", "small", true);
+        Ticket ticket = parkingLot.parkCar(car);
+
+        Map<Car, Ticket> parked = parkingLot.getAllParkedCars();
+        assertEquals(ticket, parked.get(car), "The stored ticket should equal the one issued.");
+        assertEquals(ticket.getParkedAt(), parked.get(car).getParkedAt(), "The arrival time should survive storage.");
+        assertEquals("Spot_1", parkingLot.findCar(ticket), "The car should be found by its ticket.");
+        assertEquals(ticket, parkingLot.parkCar(car), "Parking the same car again should not issue a new ticket.");
+        assertEquals(ticket, parkingLot.parkCar(new Car("KA01", "Red", "Honda", "Civic", "small", true)), "An equal car should count as already parked.");
+    }
+
+    @Test
+    void testCompactLotQueriesAndUnpark() {
+        ParkingLot parkingLot = compactLot(10);
+        Car red = new Car("RED1", "Red", "Honda", "Civic", "small", true);
+        Ticket redTicket = parkingLot.parkCar(red);
+        parkingLot.parkCar(new Car("RED2", "RED", "Tesla", "Model 3", "medium", false));
+
+        assertEquals(2, parkingLot.findCarsByColor("red").size(), "Both red cars should be found.");
+        assertEquals(1, parkingLot.findSmallHandicapCarsInRows((String) null).size(), "The small handicap car should be found.");
+        assertEquals(2, parkingLot.findCarsParkedWithinLastMinutes(5).size(), "Both cars arrived just now.");
+
+        assertEquals(red, parkingLot.unparkCar(redTicket), "Unparking should hand back an equal car.");
+        assertNull(parkingLot.unparkCar(redTicket), "A used ticket should not unpark again.");
+        assertEquals(1, parkingLot.findCarsByColor("red").size(), "The unparked car should leave the index.");
+
+        Ticket next = parkingLot.parkCar(new Car("BLUE1", "Blue", "BMW", "X5", "large", false));
+        assertEquals("Spot_1", next.getParkingSpot(), "The freed spot should be reused.");
+        assertEquals("Car not found", parkingLot.findCar(redTicket), "The old ticket should not find the new car.");
+    }
+
+    @Test
+    void testCompactLotFindsEveryCarAfterOthersLeave() {
+        ParkingLot parkingLot = compactLot(2000);
+        Ticket[] tickets = new Ticket[2000];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = parkingLot.parkCar(new Car("PL" + i, "Red", "Ford", "Focus", "small", false));
+        }
+        for (int i = 0; i < tickets.length; i += 3) {
+            assertNotNull(parkingLot.unparkCar(tickets[i]), "Every third car should unpark.");
+        }
+
+        for (int i = 0; i < tickets.length; i++) {
+            Car car = new Car("PL" + i, "Red", "Ford", "Focus", "small", false);
+            Ticket again = parkingLot.parkCar(car);
+            if (i % 3 == 0) {
+                assertNotEquals(tickets[i], again, "A car that left should get a new ticket.");
+            } else {
+                assertEquals(tickets[i], again, "A car that stayed should still be found by its plate.");
+            }
+        }
+        assertEquals(2000, parkingLot.findCarsByMake("ford").size(), "Every car should be in the make index once.");
+        assertEquals(2000, parkingLot.findCarsParkedWithinLastMinutes(5).size(), "Every car arrived just now.");
+    }
+
+    @Test
+    void testCompactLotRetainsLessHeapPerCar() {
+        long objects = retainedBytesPerCar(ParkingLot.StorageMode.OBJECTS);
+        long compact = retainedBytesPerCar(ParkingLot.StorageMode.COMPACT);
+        // about 200 against 670 bytes on a 64-bit JVM with compressed oops
+        assertTrue(compact * 3 < objects, "A compact lot should retain under a third of the heap of an object lot, was "
+                + compact + " vs " + objects + " bytes per car.");
+    }
+
+    // Heap still reachable after parking 100k cars with distinct strings, as callers would pass them
+    private static long retainedBytesPerCar(ParkingLot.StorageMode mode) {
+        int cars = 100000;
+        long before = usedHeap();
+        ParkingLot parkingLot = new ParkingLot(cars, Clock.systemUTC(), new SequenceTicketIdGenerator(1), mode);
+        for (int i = 0; i < cars; i++) {
+            parkingLot.parkCar(new Car("PL" + i, new String("Red"), new String("Ford"), new String("Focus"), new String("small"), false));
+        }
+        long retained = usedHeap() - before;
+        assertEquals(cars, parkingLot.getNumberOfParkedCars(), "Every car should be parked.");
+        return retained / cars;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.GatePipeline;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class GatePipelineTest {
+
+    private static Car car(String plate) {
+        return new Car(plate, "White", "Ford", "Focus", "medium", false);
+    }
+
+    @Test
+    void testEventsFromManyGatesAreAppliedOnce() throws Exception {
+        List<ParkingLot> lots = Arrays.asList(new ParkingLot(1000), new ParkingLot(1000), new ParkingLot(1000));
+        List<CompletableFuture<Ticket>> arrivals = new ArrayList<>();
+        try (GatePipeline pipeline = new GatePipeline(lots, 2, 4096, 64, GatePipeline.Backpressure.BLOCK)) {
+            List<List<CompletableFuture<Ticket>>> perGate = new ArrayList<>();
+            List<Thread> gates = new ArrayList<>();
+            for (int g = 0; g < 3; g++) {
+                List<CompletableFuture<Ticket>> gateArrivals = new ArrayList<>();
+                perGate.add(gateArrivals);
+                int gate = g;
+                gates.add(new Thread(() -> {
+                    for (int i = 0; i < 1200; i++) {
+                        gateArrivals.add(pipeline.arrive(lots.get(gate), car("G" + gate + "-" + i)));
+                    }
+                }));
+            }
+            for (Thread gate : gates) {
+                gate.start();
+            }
+            for (Thread gate : gates) {
+                gate.join();
+            }
+            perGate.forEach(arrivals::addAll);
+
+            int parked = 0;
+            int turnedAway = 0;
+            for (CompletableFuture<Ticket> arrival : arrivals) {
+                if (arrival.get() == null) {
+                    turnedAway++;
+                } else {
+                    parked++;
+                }
+            }
+            assertEquals(3000, parked, "Each lot should fill up exactly.");
+            assertEquals(600, turnedAway, "Cars beyond capacity should be turned away.");
+            assertTrue(lots.get(0).isFullSignDisplayed(), "A full lot should show its sign.");
+
+            Ticket ticket = arrivals.get(5).get();
+            assertEquals(ticket.getParkingSpot(), pipeline.findCar(ticket).get(), "Lookups should be routed to the ticket's lot.");
+            assertEquals(car("G0-5"), pipeline.depart(ticket).get(), "Departures should be routed to the ticket's lot.");
+            assertNull(pipeline.depart(ticket).get(), "A used ticket should not depart again.");
+            assertFalse(lots.get(0).isFullSignDisplayed(), "The sign should go off once a space frees up.");
+        }
+    }
+
+    @Test
+    void testRejectBackpressureAndClose() throws Exception {
+        ParkingLot lot = new ParkingLot(100000);
+        GatePipeline pipeline = new GatePipeline(Arrays.asList(lot), 1, 1, 1, GatePipeline.Backpressure.REJECT);
+        List<CompletableFuture<Ticket>> arrivals = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            arrivals.add(pipeline.arrive(lot, car("CAR" + i)));
+        }
+        pipeline.close();
+
+        int rejected = 0;
+        for (CompletableFuture<Ticket> arrival : arrivals) {
+            try {
+                assertNotNull(arrival.get(), "Accepted arrivals should be parked.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException, "Overflow should be reported as a rejection.");
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0, "A one-slot queue should overflow under a burst.");
+        assertEquals(20000 - rejected, lot.getNumberOfParkedCars(), "Only accepted arrivals should park.");
+        ExecutionException closed = assertThrows(ExecutionException.class, () -> pipeline.arrive(lot, car("LATE")).get());
+        assertTrue(closed.getCause() instanceof RejectedExecutionException, "A closed pipeline should reject events.");
+    }
+
+    @Test
+    void testEventsRacingCloseAllComplete() throws Exception {
+        ParkingLot lot = new ParkingLot(100000);
+        GatePipeline pipeline = new GatePipeline(Arrays.asList(lot), 1, 4, 2, GatePipeline.Backpressure.BLOCK);
+        List<List<CompletableFuture<Ticket>>> perGate = new ArrayList<>();
+        List<Thread> gates = new ArrayList<>();
+        for (int g = 0; g < 4; g++) {
+            List<CompletableFuture<Ticket>> gateArrivals = new ArrayList<>();
+            perGate.add(gateArrivals);
+            int gate = g;
+            gates.add(new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    gateArrivals.add(pipeline.arrive(lot, car("G" + gate + "-" + i)));
+                }
+            }));
+        }
+        for (Thread gate : gates) {
+            gate.start();
+        }
+        Thread.sleep(5);
+        pipeline.close();
+        for (Thread gate : gates) {
+            gate.join(10000);
+            assertFalse(gate.isAlive(), "A gate should not stay blocked on a closed pipeline.");
+        }
+
+        int parked = 0;
+        for (List<CompletableFuture<Ticket>> gateArrivals : perGate) {
+            for (CompletableFuture<Ticket> arrival : gateArrivals) {
+                try {
+                    if (arrival.get(10, TimeUnit.SECONDS) != null) {
+                        parked++;
+                    }
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RejectedExecutionException, "Late arrivals should be rejected.");
+                }
+            }
+        }
+        assertEquals(lot.getNumberOfParkedCars(), parked, "Every accepted arrival should have completed with its ticket.");
+    }
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.BatchResult;
+import com.example.BayType;
+import com.example.Car;
+import com.example.LotTopology;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.Arrays;
+
+class LotTopologyTest {
+
+    private static LotTopology layout() {
+        return new LotTopology()
+                .addBays("A", "North", BayType.HANDICAP, 2)  // Spot_1..2
+                .addBays("A", "North", BayType.STANDARD, 3)  // Spot_3..5
+                .addBays("B", "South", BayType.LARGE, 2)     // Spot_6..7
+                .addBays("B", "South", BayType.STANDARD, 3); // Spot_8..10
+    }
+
+    private static Car car(String plate, String size, boolean handicap) {
+        return new Car(plate, "Red", "Ford", "Focus", size, handicap);
+    }
+
+    @Test
+    void testCarsGetTheNearestBayOfTheirType() {
+        ParkingLot parkingLot = new ParkingLot(layout());
+
+        Ticket ordinary = parkingLot.parkCar(car("CAR1", "small", false));
+        Ticket handicap = parkingLot.parkCar(car("HANDICAP1", "small", true));
+        Ticket large = parkingLot.parkCar(car("LARGE1", "large", false));
+
+        assertEquals("Spot_3", ordinary.getParkingSpot(), "Ordinary cars should skip the handicap bays.");
+        assertEquals("Spot_1", handicap.getParkingSpot(), "Handicap cars should get the nearest handicap bay.");
+        assertEquals("Spot_6", large.getParkingSpot(), "Large cars should get a large bay.");
+        assertEquals("A", ordinary.getParkingRow(), "Tickets should carry the row of their spot.");
+        assertEquals("B", large.getParkingRow(), "Tickets should carry the row of their spot.");
+        assertEquals(10, parkingLot.getCapacity(), "Capacity should be the number of bays.");
+    }
+
+    @Test
+    void testFreeBayCountsByTypeRowAndZone() {
+        ParkingLot parkingLot = new ParkingLot(layout());
+        Ticket ticket = parkingLot.parkCar(car("HANDICAP1", "small", true));
+        parkingLot.parkCar(car("LARGE1", "large", false));
+
+        assertEquals("Spot_2", parkingLot.getNearestFreeSpot(BayType.HANDICAP), "The next handicap bay should be Spot_2.");
+        assertEquals(1, parkingLot.getNumberOfFreeBays(BayType.HANDICAP), "One handicap bay should be left.");
+        assertEquals(4, parkingLot.getNumberOfFreeBaysInRow("A"), "Row A should have 4 free bays.");
+        assertEquals(4, parkingLot.getNumberOfFreeBaysInZone("South"), "Zone South should have 4 free bays.");
+        assertEquals(0, parkingLot.getNumberOfFreeBaysInRow("Z"), "Unknown rows have no bays.");
+
+        parkingLot.unparkCar(ticket);
+        assertEquals("Spot_1", parkingLot.getNearestFreeSpot(BayType.HANDICAP), "Unparking should free the handicap bay again.");
+        assertEquals(5, parkingLot.getNumberOfFreeBaysInRow("A"), "Row A should be empty again.");
+        assertEquals(1, parkingLot.query().rows("B").count(), "Row queries should find the large car.");
+    }
+
+    @Test
+    void testCarsFallBackButNeverTakeHandicapBays() {
+        ParkingLot parkingLot = new ParkingLot(new LotTopology()
+                .addBays(null, null, BayType.HANDICAP, 2)
+                .addBays(null, null, BayType.STANDARD, 1));
+
+        assertEquals("Spot_3", parkingLot.parkCar(car("CAR1", "small", false)).getParkingSpot(), "The standard bay should be used.");
+        assertNull(parkingLot.parkCar(car("CAR2", "small", false)), "Ordinary cars should not get a handicap bay.");
+        assertEquals(2, parkingLot.getNumberOfFreeSpaces(), "A rejected car should not use up a space.");
+
+        BatchResult<Car, Ticket> result = parkingLot.parkAll(Arrays.asList(car("CAR3", "large", false), car("HANDICAP1", "small", true)));
+        assertEquals(1, result.getFailed().size(), "Only the handicap car fits.");
+        assertEquals(1, parkingLot.getNumberOfFreeSpaces(), "One handicap bay should be left.");
+    }
+
+    @Test
+    void testAttendantSendsHandicapCarsToTheNearestHandicapBay() {
+        ParkingLot plainLot = new ParkingLot(10);
+        ParkingLot farLot = new ParkingLot(new LotTopology()
+                .addBays("A", null, BayType.STANDARD, 5)
+                .addBays("B", null, BayType.HANDICAP, 1));
+        ParkingLot nearLot = new ParkingLot(new LotTopology()
+                .addBays("A", null, BayType.HANDICAP, 1)
+                .addBays("B", null, BayType.LARGE, 1));
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(plainLot, farLot, nearLot));
+
+        assertEquals("Spot_1", attendant.parkCar(car("HANDICAP1", "small", true), true, false).getParkingSpot(), "The nearest handicap bay is Spot_1 of the last lot.");
+        assertEquals(1, nearLot.getNumberOfParkedCars(), "The lot with the nearest handicap bay should be chosen.");
+        assertEquals("Spot_6", attendant.parkCar(car("HANDICAP2", "small", true), true, false).getParkingSpot(), "The next handicap bay is in the second lot.");
+        assertEquals(1, farLot.getNumberOfParkedCars(), "The second lot should be chosen next.");
+        attendant.parkCar(car("HANDICAP3", "small", true), true, false);
+        assertEquals(1, plainLot.getNumberOfParkedCars(), "With no handicap bays free, the first lot with room is used.");
+
+        attendant.parkCar(car("LARGE1", "large", false), false, true);
+        assertEquals(2, plainLot.getNumberOfParkedCars(), "Large cars should go where most bays they can use are free.");
+    }
+
+    @Test
+    void testAttendantSkipsLotsWithOnlyHandicapBaysFree() {
+        ParkingLot handicapLot = new ParkingLot(new LotTopology()
+                .addBays(null, null, BayType.HANDICAP, 3)
+                .addBays(null, null, BayType.STANDARD, 1));
+        ParkingLot busyLot = new ParkingLot(10);
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(handicapLot, busyLot));
+        for (int i = 0; i < 3; i++) {
+            busyLot.parkCar(car("BUSY" + i, "small", false));
+        }
+
+        attendant.parkCar(car("CAR1", "small", false), false, false);
+        assertEquals(1, handicapLot.getNumberOfParkedCars(), "The lot with fewest cars should take the car.");
+        assertNotNull(attendant.parkCar(car("CAR2", "small", false), false, false), "A lot with only handicap bays free should be skipped.");
+        assertEquals(4, busyLot.getNumberOfParkedCars(), "The car should go to the lot with a standard bay free.");
+
+        BatchResult<Car, Ticket> result = attendant.parkAll(Arrays.asList(car("CAR3", "small", false), car("CAR4", "medium", false)));
+        assertTrue(result.getFailed().isEmpty(), "Batches should not be planned into handicap bays.");
+        assertEquals(6, busyLot.getNumberOfParkedCars(), "The whole batch should go to the lot with standard bays.");
+    }
+}
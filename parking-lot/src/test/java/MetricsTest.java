@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.LatencyHistogram;
+import com.example.MetricsRegistry;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.SimpleMetricsRegistry;
+import com.example.Ticket;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+class MetricsTest {
+
+    private static Map<String, Long> scrape(MetricsRegistry registry) {
+        Map<String, Long> values = new HashMap<>();
+        registry.scrape(new MetricsRegistry.Scraper() {
+            @Override
+            public void counter(String name, long value) {
+                values.put(name, value);
+            }
+
+            @Override
+            public void gauge(String name, long value) {
+                values.put(name, value);
+            }
+
+            @Override
+            public void histogram(String name, LatencyHistogram histogram) {
+                values.put(name, histogram.getCount());
+            }
+        });
+        return values;
+    }
+
+    private static Car car(String plate) {
+        return new Car(plate, "White", "Ford", "Focus", "medium", false);
+    }
+
+    @Test
+    void testLotPublishesCountsLatenciesAndGauges() {
+        SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+        ParkingLot parkingLot = new ParkingLot(2);
+        parkingLot.enableMetrics(registry, "north");
+
+        Ticket ticket = parkingLot.parkCar(car("CAR1"));
+        parkingLot.parkCar(car("CAR2"));
+        parkingLot.updateFullSign();
+        parkingLot.parkCar(car("CAR3"));
+        parkingLot.findCar(ticket);
+        parkingLot.findCarsByColor("White");
+        parkingLot.unparkCar(ticket);
+        parkingLot.updateFullSign();
+
+        Map<String, Long> values = scrape(registry);
+        assertEquals(2L, values.get("lot.north.parked"), "Two cars should have been parked.");
+        assertEquals(1L, values.get("lot.north.rejected"), "The car that found the lot full should be counted.");
+        assertEquals(1L, values.get("lot.north.unparked"), "One car should have left.");
+        assertEquals(3L, values.get("lot.north.park_nanos"), "Every park attempt should be timed.");
+        assertEquals(1L, values.get("lot.north.find_car_nanos"), "The ticket lookup should be timed.");
+        assertEquals(1L, values.get("lot.north.find_by_attribute_nanos"), "The color query should be timed.");
+        assertEquals(2L, values.get("lot.north.full_sign_transitions"), "The sign went on and off once.");
+        assertEquals(1L, values.get("lot.north.occupied"), "One car is still parked.");
+        assertEquals(1L, values.get("lot.north.free"), "One spot is free.");
+    }
+
+    @Test
+    void testAttendantCountsSelectionsPerStrategy() {
+        SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+        ParkingAttendant attendant = new ParkingAttendant("Sam", Arrays.asList(new ParkingLot(2), new ParkingLot(2)));
+        attendant.enableMetrics(registry);
+
+        attendant.parkCar(car("CAR1"), true, false);
+        attendant.parkCar(car("CAR2"), false, true);
+        attendant.parkCar(car("CAR3"), false, false);
+
+        Map<String, Long> values = scrape(registry);
+        assertEquals(1L, values.get("attendant.Sam.selected.nearest"), "The handicap car should use the nearest strategy.");
+        assertEquals(1L, values.get("attendant.Sam.selected.most_free"), "The large car should use the most-free strategy.");
+        assertEquals(1L, values.get("attendant.Sam.selected.least_cars"), "The ordinary car should use the least-cars strategy.");
+        assertEquals(0L, values.get("attendant.Sam.selected.none"), "Every strategy found a lot.");
+    }
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount(), "Every value should be counted.");
+        assertEquals(100_000_000L, histogram.getMax(), "The max should be exact.");
+        assertEquals(50_000_000.0, histogram.getValueAtPercentile(50), 50_000_000 * 0.035, "The median should be within bucket precision.");
+        assertEquals(99_000_000.0, histogram.getValueAtPercentile(99), 99_000_000 * 0.035, "The 99th percentile should be within bucket precision.");
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100), "The 100th percentile is the max.");
+    }
+}
@@ -0,0 +1,248 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.LoopbackTransport;
+import com.example.OccupancyTransport;
+import com.example.OccupancyUpdate;
+import com.example.OccupancyReplicator;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+class OccupancyReplicatorTest {
+
+    private static Car car(String plate) {
+        return new Car(plate, "Red", "Ford", "Focus", "small", false);
+    }
+
+    @Test
+    void testNodesConvergeOnSharedOccupancy() {
+        LoopbackTransport transport = new LoopbackTransport();
+        OccupancyReplicator gateA = new OccupancyReplicator("gate-a", transport, 0);
+        OccupancyReplicator gateB = new OccupancyReplicator("gate-b", transport, 0);
+        ParkingLot lotA = new ParkingLot(3);
+        ParkingLot lotB = new ParkingLot(2);
+        gateA.share("garage", lotA);
+        gateB.share("garage", lotB);
+        gateA.flush(); // gate-a answers the node it just heard from
+
+        assertEquals(5, lotA.getCapacity(), "Both nodes should see the whole garage.");
+        assertEquals(5, lotB.getCapacity(), "Both nodes should see the whole garage.");
+
+        Ticket first = lotA.parkCar(car("CAR1"));
+        lotA.parkCar(car("CAR2"));
+        lotA.parkCar(car("CAR3"));
+        assertNull(lotA.parkCar(car("CAR4")), "A node can only park in its own partition.");
+        assertFalse(lotA.hasRoomHere(), "Gate A's partition is full.");
+        assertTrue(lotA.isFull(), "A lot that turns cars away should say it is full.");
+        lotA.updateFullSign();
+        assertTrue(lotA.isFullSignDisplayed(), "Gate A's sign should show full while its own bays are.");
+        assertEquals(2, lotA.getNumberOfFreeSpaces(), "The garage still has room at the other node.");
+        assertEquals(5, lotB.getNumberOfFreeSpaces(), "Nothing has been replicated yet.");
+
+        gateA.flush();
+        assertEquals(2, lotB.getNumberOfFreeSpaces(), "Gate B should see gate A's cars after a flush.");
+        assertEquals(3, lotB.getNumberOfParkedCars(), "Gate B should count gate A's cars.");
+        assertFalse(lotB.isFull(), "Gate B's own partition is untouched.");
+        assertFalse(lotB.isFullSignDisplayed(), "Gate B's sign should stay off while it can take cars.");
+
+        lotB.parkCar(car("CAR5"));
+        lotB.parkCar(car("CAR6"));
+        lotB.updateFullSign();
+        gateB.flush();
+        assertEquals(0, lotA.getNumberOfFreeSpaces(), "The garage is full once both partitions are.");
+        assertTrue(lotB.isFullSignDisplayed(), "Gate B's sign should show full.");
+
+        lotA.unparkCar(first);
+        gateA.flush();
+        assertEquals(1, lotB.getNumberOfFreeSpaces(), "One space is free in the garage.");
+        assertTrue(lotB.isFullSignDisplayed(), "Gate B can't park in gate A's freed bay, so its sign stays on.");
+        lotA.updateFullSign();
+        assertFalse(lotA.isFullSignDisplayed(), "Gate A's sign should clear once it has a bay free.");
+
+        gateA.close();
+        gateB.close();
+    }
+
+    @Test
+    void testLostBatchesAreRepairedByRepublishing() {
+        LoopbackTransport transport = new LoopbackTransport();
+        OccupancyReplicator gateA = new OccupancyReplicator("gate-a", transport, 0);
+        OccupancyReplicator gateB = new OccupancyReplicator("gate-b", transport, 0);
+        ParkingLot lotA = new ParkingLot(10);
+        ParkingLot lotB = new ParkingLot(10);
+        gateA.share("garage", lotA);
+        gateB.share("garage", lotB);
+        gateA.flush();
+
+        transport.disconnect("gate-a");
+        lotA.parkCar(car("CAR1"));
+        lotA.parkCar(car("CAR2"));
+        gateA.flush(); // dropped
+        transport.reconnect("gate-a");
+        assertEquals(20, lotB.getNumberOfFreeSpaces(), "The batch was lost in the partition.");
+
+        for (int i = 0; i < 20; i++) {
+            gateA.flush();
+        }
+        assertEquals(18, lotB.getNumberOfFreeSpaces(), "Periodic republishing should repair the lost batch.");
+    }
+
+    @Test
+    void testAttendantChoosesFromConvergedCounts() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport();
+        ParkingLot sharedHere = new ParkingLot(10);
+        ParkingLot sharedThere = new ParkingLot(10);
+        ParkingLot localLot = new ParkingLot(10);
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(sharedHere, localLot));
+        localLot.parkCar(car("LOCAL1"));
+
+        try (OccupancyReplicator here = new OccupancyReplicator("gate-a", transport);
+             OccupancyReplicator there = new OccupancyReplicator("gate-b", transport)) {
+            here.share("garage", sharedHere);
+            there.share("garage", sharedThere);
+            sharedThere.parkCar(car("CAR1"));
+            sharedThere.parkCar(car("CAR2"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sharedHere.getNumberOfParkedCars() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, sharedHere.getNumberOfParkedCars(), "The flusher should replicate gate B's cars.");
+
+            attendant.parkCar(car("CAR3"), false, false);
+            assertEquals(2, localLot.getNumberOfParkedCars(), "The attendant should see the shared lot has more cars.");
+        }
+    }
+
+    @Test
+    void testRemoteHoldsAreNotCountedAsCars() {
+        LoopbackTransport transport = new LoopbackTransport();
+        OccupancyReplicator gateA = new OccupancyReplicator("gate-a", transport, 0);
+        OccupancyReplicator gateB = new OccupancyReplicator("gate-b", transport, 0);
+        ParkingLot lotA = new ParkingLot(5);
+        ParkingLot lotB = new ParkingLot(5);
+        gateA.share("garage", lotA);
+        gateB.share("garage", lotB);
+        gateA.flush();
+
+        lotA.parkCar(car("CAR1"));
+        lotA.hold(Duration.ofMinutes(15));
+        lotA.hold(Duration.ofMinutes(15));
+        gateA.flush();
+        assertEquals(1, lotB.getNumberOfParkedCars(), "Holds at gate A are not parked cars.");
+        assertEquals(7, lotB.getNumberOfFreeSpaces(), "Holds at gate A still take up space.");
+    }
+
+    @Test
+    void testAttendantOnlySendsCarsWhereThisNodeHasRoom() {
+        LoopbackTransport transport = new LoopbackTransport();
+        OccupancyReplicator gateA = new OccupancyReplicator("gate-a", transport, 0);
+        OccupancyReplicator gateB = new OccupancyReplicator("gate-b", transport, 0);
+        ParkingLot sharedHere = new ParkingLot(1);
+        ParkingLot sharedThere = new ParkingLot(20);
+        ParkingLot localLot = new ParkingLot(20);
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(sharedHere, localLot));
+        for (int i = 0; i < 5; i++) {
+            localLot.parkCar(car("LOCAL" + i));
+        }
+        gateA.share("garage", sharedHere);
+        gateB.share("garage", sharedThere);
+        gateA.flush();
+
+        assertNotNull(attendant.parkCar(car("CAR1"), false, false), "The shared lot has the fewest cars.");
+        assertEquals(1, sharedHere.getNumberOfParkedCars(), "The car should go to the shared lot.");
+        assertTrue(sharedHere.isFull(), "Gate A's only bay is taken.");
+        assertTrue(sharedHere.getNumberOfFreeSpaces() > 0, "The garage has room at gate B.");
+        assertNotNull(attendant.parkCar(car("CAR2"), false, false), "A lot with no room at this node should be skipped.");
+        assertEquals(6, localLot.getNumberOfParkedCars(), "The car should go to the local lot instead.");
+    }
+
+    @Test
+    void testFailedShareLeavesTheLotUnshared() {
+        LoopbackTransport loopback = new LoopbackTransport();
+        AtomicBoolean brokerUp = new AtomicBoolean(false);
+        OccupancyTransport flaky = new OccupancyTransport() {
+            @Override
+            public void publish(String fromNodeId, List<OccupancyUpdate> batch) {
+                if (!brokerUp.get()) {
+                    throw new IllegalStateException("Broker unavailable");
+                }
+                loopback.publish(fromNodeId, batch);
+            }
+
+            @Override
+            public void subscribe(String nodeId, Consumer<List<OccupancyUpdate>> receiver) {
+                loopback.subscribe(nodeId, receiver);
+            }
+
+            @Override
+            public void unsubscribe(String nodeId) {
+                loopback.unsubscribe(nodeId);
+            }
+        };
+        OccupancyReplicator gateA = new OccupancyReplicator("gate-a", flaky, 0);
+        OccupancyReplicator gateB = new OccupancyReplicator("gate-b", loopback, 0);
+        ParkingLot lotA = new ParkingLot(3);
+        gateB.share("garage", new ParkingLot(2));
+
+        assertThrows(IllegalStateException.class, () -> gateA.share("garage", lotA), "The transport's failure should reach the caller.");
+        loopback.publish("gate-b", Arrays.asList(new OccupancyUpdate("garage", "gate-b", 99, 2, 1, 0)));
+
+        assertEquals(3, lotA.getCapacity(), "A lot that failed to be shared should not take in other nodes.");
+        assertEquals(0, lotA.getNumberOfParkedCars(), "A lot that failed to be shared should count only its own cars.");
+
+        brokerUp.set(true);
+        gateA.share("garage", lotA); // nothing was registered, so sharing again is not a duplicate
+        gateB.flush(); // gate-b answers the node it just heard from
+        assertEquals(5, lotA.getCapacity(), "Once shared the lot should see the whole garage.");
+    }
+
+    @Test
+    void testFlusherSurvivesAndRetriesFailedPublishes() throws InterruptedException {
+        LoopbackTransport loopback = new LoopbackTransport();
+        AtomicInteger failuresLeft = new AtomicInteger(0);
+        OccupancyTransport flaky = new OccupancyTransport() {
+            @Override
+            public void publish(String fromNodeId, List<OccupancyUpdate> batch) {
+                if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new IllegalStateException("Broker unavailable");
+                }
+                loopback.publish(fromNodeId, batch);
+            }
+
+            @Override
+            public void subscribe(String nodeId, Consumer<List<OccupancyUpdate>> receiver) {
+                loopback.subscribe(nodeId, receiver);
+            }
+
+            @Override
+            public void unsubscribe(String nodeId) {
+                loopback.unsubscribe(nodeId);
+            }
+        };
+        ParkingLot lotA = new ParkingLot(10);
+        ParkingLot lotB = new ParkingLot(10);
+        try (OccupancyReplicator gateA = new OccupancyReplicator("gate-a", flaky, 5);
+             OccupancyReplicator gateB = new OccupancyReplicator("gate-b", loopback, 0)) {
+            gateA.share("garage", lotA);
+            gateB.share("garage", lotB);
+            failuresLeft.set(3);
+            lotA.parkCar(car("CAR1"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lotB.getNumberOfParkedCars() != 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, lotB.getNumberOfParkedCars(), "The flusher should keep going and resend the failed entry.");
+            assertEquals(3, gateA.getFailedFlushes(), "Every failed publish should be counted.");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingAnalytics;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+class ParkingAnalyticsTest {
+
+    @Test
+    void testSeriesTurnoverAndRevenueFollowEvents() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        ParkingAnalytics analytics = new ParkingAnalytics(Collections.singletonList(parkingLot), Duration.ofHours(1), 24);
+
+        Ticket first = parkingLot.parkCar(new Car("CAR1", "Red", "Ford", "Focus", "small", false));
+        Ticket large = parkingLot.parkCar(new Car("LARGE1", "Red", "Ford", "Transit", "large", false));
+        clock.advance(Duration.ofHours(2));
+        parkingLot.unparkCar(first);
+        Ticket handicap = parkingLot.parkCar(new Car("HANDICAP1", "Red", "Ford", "Focus", "small", true));
+        clock.advance(Duration.ofMinutes(30));
+        parkingLot.unparkCar(large);
+        parkingLot.unparkCar(handicap);
+
+        List<ParkingAnalytics.Bucket> series = analytics.getOccupancySeries(parkingLot);
+        assertEquals(3, series.size(), "There should be a bucket per hour since the first car.");
+        assertEquals(LocalDateTime.parse("2024-01-01T10:00"), series.get(0).getStart(), "The first bucket should start at 10:00.");
+        assertEquals(2, series.get(0).getArrivals(), "Two cars arrived at 10:00.");
+        assertEquals(2, series.get(1).getOccupancy(), "The lot stayed at two cars through 11:00.");
+        assertEquals(2, series.get(2).getPeakOccupancy(), "The 12:00 bucket peaked at two cars.");
+        assertEquals(3, series.get(2).getDepartures(), "Three cars left in the 12:00 bucket.");
+        assertEquals(0, series.get(2).getOccupancy(), "The lot is empty now.");
+
+        assertEquals(3, analytics.getDepartures(parkingLot), "Three cars left in total.");
+        assertEquals(0.3, analytics.getTurnover(parkingLot, Duration.ofHours(1)), 1e-9, "Three departures over ten bays.");
+        assertEquals(20.0, analytics.getRevenue(parkingLot, Duration.ofHours(1)), 1e-9, "Two cars paid for two completed hours.");
+        assertEquals(20.0, analytics.getTotalRevenue(parkingLot), 1e-9, "All revenue came in the last hour.");
+    }
+
+    @Test
+    void testDwellTimeQuantilesPerLotAndClass() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(200, clock);
+        ParkingAnalytics analytics = new ParkingAnalytics(Collections.singletonList(parkingLot), Duration.ofMinutes(15), 96);
+
+        Ticket[] tickets = new Ticket[100];
+        for (int i = 0; i < 100; i++) {
+            tickets[i] = parkingLot.parkCar(new Car("CAR" + i, "Blue", "Kia", "Rio", i < 90 ? "small" : "large", i % 10 == 0));
+        }
+        for (int i = 0; i < 100; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            parkingLot.unparkCar(tickets[i]);
+        }
+
+        long p50 = analytics.getDwellTime(parkingLot, 50).toMillis();
+        assertEquals(Duration.ofMinutes(50).toMillis(), p50, Duration.ofMinutes(50).toMillis() * 0.03, "Half the cars stayed 50 minutes or less.");
+        assertEquals(Duration.ofMinutes(100), analytics.getDwellTime(parkingLot, 100), "The longest stay is exact.");
+        assertEquals(Duration.ofMinutes(100), analytics.getDwellTime("LARGE", false, 100), "Large cars left last.");
+        assertEquals(Duration.ofMinutes(81), analytics.getDwellTime("small", true, 100), "The last small handicap car left after 81 minutes.");
+        assertEquals(Duration.ZERO, analytics.getDwellTime("medium", false, 50), "No medium cars were seen.");
+    }
+
+    @Test
+    void testSeriesStaysBoundedAndCountsCarsAlreadyParked() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T00:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        parkingLot.parkCar(new Car("EARLY1", "Red", "Kia", "Rio", "small", false));
+        ParkingAnalytics analytics = new ParkingAnalytics(Collections.singletonList(parkingLot), Duration.ofHours(1), 24);
+
+        parkingLot.parkCar(new Car("CAR1", "Red", "Kia", "Rio", "small", false));
+        clock.advance(Duration.ofDays(3));
+        List<ParkingAnalytics.Bucket> series = analytics.getOccupancySeries(parkingLot);
+
+        assertEquals(24, series.size(), "Only the last 24 buckets are kept.");
+        assertEquals(LocalDateTime.parse("2024-01-03T01:00"), series.get(0).getStart(), "The oldest bucket should be 23 hours back.");
+        assertEquals(2, series.get(23).getOccupancy(), "The car parked before analytics started should be counted.");
+        assertEquals(1, analytics.getArrivals(parkingLot), "Only cars parked since analytics started are arrivals.");
+    }
+}
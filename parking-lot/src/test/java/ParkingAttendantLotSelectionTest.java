@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.BayType;
+import com.example.Car;
+import com.example.LotTopology;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.Arrays;
+import java.util.List;
+
+class ParkingAttendantLotSelectionTest {
+
+    private Car car(String plate) {
+        return new Car(plate, "White", "Make", "Model", "small", false);
+    }
+
+    @Test
+    void testCarsAreSpreadEvenlyAcrossLots() {
+        List<ParkingLot> parkingLots = Arrays.asList(new ParkingLot(10), new ParkingLot(10), new ParkingLot(10));
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", parkingLots);
+
+        for (int i = 0; i < 9; i++) {
+            assertNotNull(attendant.parkCar(car("CAR" + i), false, false), "Every car should get a ticket.");
+        }
+
+        for (ParkingLot lot : parkingLots) {
+            assertEquals(3, lot.getNumberOfParkedCars(), "Each lot should hold 3 cars.");
+        }
+    }
+
+    @Test
+    void testUnparkingDirectlyAtALotIsSeenByTheAttendant() {
+        List<ParkingLot> parkingLots = Arrays.asList(new ParkingLot(10), new ParkingLot(10));
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", parkingLots);
+        Ticket first = attendant.parkCar(car("CAR1"), false, false);
+        attendant.parkCar(car("CAR2"), false, false);
+        attendant.parkCar(car("CAR3"), false, false);
+        attendant.parkCar(car("CAR4"), false, false);
+
+        assertNotNull(parkingLots.get(0).unparkCar(first), "The first car was parked in the first lot.");
+        attendant.parkCar(car("CAR5"), false, true);
+
+        assertEquals(2, parkingLots.get(0).getNumberOfParkedCars(), "The large car should go to the lot with most free spaces.");
+        assertEquals(2, parkingLots.get(1).getNumberOfParkedCars(), "The second lot should be unchanged.");
+    }
+
+    @Test
+    void testHandicapCarsGoToTheFirstLotWithSpace() {
+        ParkingLot smallLot = new ParkingLot(1);
+        ParkingLot bigLot = new ParkingLot(10);
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(smallLot, bigLot));
+
+        attendant.parkCar(car("HANDICAP1"), true, false);
+        attendant.parkCar(car("HANDICAP2"), true, false);
+
+        assertEquals(1, smallLot.getNumberOfParkedCars(), "The first lot should be used while it has space.");
+        assertEquals(1, bigLot.getNumberOfParkedCars(), "The next lot should be used once the first is full.");
+        assertEquals("John Doe", bigLot.getAllParkedCars().values().iterator().next().getAttendantName(), "Tickets should carry the attendant's name.");
+    }
+
+    @Test
+    void testALotListedTwiceIsOneLot() {
+        ParkingLot repeated = new ParkingLot(2);
+        ParkingLot other = new ParkingLot(10);
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(repeated, other, repeated));
+
+        for (int i = 0; i < 6; i++) {
+            assertNotNull(attendant.parkCar(car("CAR" + i), false, false), "Every car should get a ticket.");
+        }
+
+        assertEquals(2, repeated.getNumberOfParkedCars(), "The repeated lot should fill up once.");
+        assertEquals(4, other.getNumberOfParkedCars(), "The other lot should take the rest.");
+        assertEquals(4, attendant.parkAll(Arrays.asList(car("CAR6"), car("CAR7"), car("CAR8"), car("CAR9"))).getSucceeded().size(),
+                "A batch should be planned on the repeated lot's real room.");
+        assertEquals(8, other.getNumberOfParkedCars(), "The batch should all go to the lot with room.");
+    }
+
+    @Test
+    void testTheAttendantsChoiceOfBayIsWhatTheLotAllocates() {
+        ParkingLot parkingLot = new ParkingLot(new LotTopology()
+                .addBays("A", "North", BayType.HANDICAP, 1)
+                .addBays("A", "North", BayType.STANDARD, 1)
+                .addBays("B", "North", BayType.LARGE, 1));
+        ParkingAttendant attendant = new ParkingAttendant("John Doe", Arrays.asList(parkingLot));
+
+        Ticket large = attendant.parkCar(car("VAN1"), false, true);
+        Ticket handicap = attendant.parkCar(car("BADGE1"), true, false);
+
+        assertEquals("Spot_3", large.getParkingSpot(), "A car parked as large should get the large bay.");
+        assertEquals("Spot_1", handicap.getParkingSpot(), "A car parked as handicap should get the handicap bay.");
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingFacility;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+class ParkingFacilityTest {
+
+    private static Car car(String plate) {
+        return new Car(plate, "White", "Ford", "Focus", "medium", false);
+    }
+
+    @Test
+    void testTicketsAreRoutedBackToTheirLot() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        List<ParkingLot> lots = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lots.add(new ParkingLot(2, clock));
+        }
+        ParkingFacility facility = new ParkingFacility("Ana", lots);
+
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tickets.add(facility.parkCar(car("CAR" + i), false, false));
+        }
+        clock.advance(Duration.ofHours(2));
+
+        Ticket ticket = tickets.get(57);
+        ParkingLot lot = facility.lotOf(ticket);
+        assertNotNull(lot, "Every issued ticket should be routed.");
+        assertEquals(1, lot.getAllParkedCars().values().stream().filter(ticket::equals).count(), "The car should really be parked in that lot.");
+        assertEquals(ticket.getParkingSpot(), facility.findCar(ticket), "The car should be found through the facility.");
+        assertEquals(2 * ParkingLot.RATE_PER_HOUR, facility.calculateCharge(ticket), "The charge should come from the car's lot.");
+        assertEquals(car("CAR57"), facility.unparkCar(ticket), "The car should be unparked from its lot.");
+        assertNull(facility.lotOf(ticket), "A used ticket should no longer be routed.");
+        assertEquals("Car not found", facility.findCar(ticket), "A used ticket should not find a car.");
+    }
+
+    @Test
+    void testCarsParkedAtALotDirectlyAreRouted() {
+        ParkingLot first = new ParkingLot(5);
+        ParkingLot second = new ParkingLot(5);
+        Ticket before = second.parkCar(car("EARLY1"));
+        ParkingFacility facility = new ParkingFacility("Ana", Arrays.asList(first, second));
+        Ticket after = second.parkCar(car("LATE1"));
+
+        assertSame(second, facility.lotOf(before), "Cars parked before the facility existed should be routed.");
+        assertSame(second, facility.lotOf(after), "Cars parked at the lot directly should be routed.");
+        second.unparkCar(after);
+        assertNull(facility.lotOf(after), "Unparking at the lot should drop the route.");
+    }
+
+    @Test
+    void testLotsIssuingTheSameTicketIdAreToldApart() {
+        Iterator<String> northIds = Arrays.asList("T1", "T2").iterator();
+        Iterator<String> southIds = Arrays.asList("S1", "T1").iterator();
+        ParkingLot north = new ParkingLot(5, Clock.systemUTC(), northIds::next);
+        ParkingLot south = new ParkingLot(5, Clock.systemUTC(), southIds::next);
+        ParkingFacility facility = new ParkingFacility("Ana", Arrays.asList(north, south));
+        Ticket northTicket = north.parkCar(car("NORTH1"));
+        south.parkCar(car("SOUTH1"));
+        Ticket southTicket = south.parkCar(car("SOUTH2"));
+        assertEquals(northTicket.getTicketId(), southTicket.getTicketId(), "Both lots issued the same id.");
+
+        assertSame(north, facility.lotOf(northTicket), "The north ticket should be routed to its own lot.");
+        assertSame(south, facility.lotOf(southTicket), "The south ticket should be routed to its own lot.");
+        assertEquals(car("SOUTH2"), facility.unparkCar(southTicket), "The south car should leave the south lot.");
+        assertSame(north, facility.lotOf(northTicket), "The north ticket should still be routed after the other left.");
+        assertEquals(car("NORTH1"), facility.unparkCar(northTicket), "The north car should leave the north lot.");
+        assertNull(facility.lotOf(northTicket), "Used tickets should no longer be routed.");
+    }
+}
@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.example.Car;
+import com.example.ParkingJournal;
+import com.example.ParkingEventListener;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+class ParkingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final TestClock clock = new TestClock(Instant.parse("2024-03-01T08:00:00Z"));
+
+    private Car car(String plate) {
+        return new Car(plate, "Blue", "Toyota", "Camry", "small", false);
+    }
+
+    @Test
+    void testRestartRestoresParkedCarsAndTheirSpots() throws IOException {
+        Path journalFile = directory.resolve("lot.journal");
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        ParkingJournal journal = ParkingJournal.open(journalFile, parkingLot);
+        Ticket first = parkingLot.parkCar(car("KEEP1"));
+        Ticket second = parkingLot.parkCar(car("GONE1"));
+        Ticket third = parkingLot.parkCar(car("KEEP2"));
+        parkingLot.unparkCar(second);
+        journal.close();
+
+        ParkingLot restarted = new ParkingLot(10, clock);
+        ParkingJournal.open(journalFile, restarted).close();
+
+        assertEquals(2, restarted.getNumberOfParkedCars(), "Only the cars still parked should come back.");
+        assertEquals(first.getParkingSpot(), restarted.findCar(first), "A ticket from before the restart should still work.");
+        assertEquals("Car not found", restarted.findCar(second), "A used ticket should stay used.");
+        assertEquals("KEEP2", restarted.unparkCar(third).getLicensePlate(), "The restored car should be returned on unpark.");
+        assertEquals(1, restarted.findCarsByColor("blue").size(), "Indexes should be rebuilt on recovery.");
+        assertEquals(second.getParkingSpot(), restarted.getNearestFreeSpot(), "Freed spots should be free after recovery.");
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        Path journalFile = directory.resolve("lot.journal");
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        ParkingJournal journal = ParkingJournal.open(journalFile, parkingLot);
+        Ticket ticket = parkingLot.parkCar(car("SAFE1"));
+        journal.sync();
+        Files.write(journalFile, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND); // crash mid-record
+        journal.close();
+
+        ParkingLot restarted = new ParkingLot(10, clock);
+        ParkingJournal.open(journalFile, restarted).close();
+
+        assertEquals(ticket.getParkingSpot(), restarted.findCar(ticket), "Records before the torn one should be recovered.");
+        assertEquals(1, restarted.getNumberOfParkedCars(), "Nothing should be made up from the torn record.");
+    }
+
+    @Test
+    void testRecoveryOfAFullJournal() throws IOException {
+        Path journalFile = directory.resolve("lot.journal");
+        int capacity = 100000;
+        ParkingLot parkingLot = new ParkingLot(capacity, clock);
+        ParkingJournal journal = ParkingJournal.open(journalFile, parkingLot);
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            cars.add(car("CAR" + i));
+        }
+        parkingLot.parkAll(cars);
+        journal.close();
+
+        ParkingLot restarted = new ParkingLot(capacity, clock);
+        ParkingJournal.open(journalFile, restarted).close();
+
+        assertTrue(restarted.isFull(), "Every ticket should be recovered.");
+        assertTrue(restarted.isFullSignDisplayed(), "The full sign should come back on.");
+    }
+
+    @Test
+    void testParkingFailsFastOnceTheJournalCannotWrite() throws Exception {
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        // appends go to a channel that is already closed, so the first write fails
+        ParkingJournal journal = ParkingJournal.open(directory.resolve("lot.journal"), parkingLot, Long.MAX_VALUE, file -> {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channel.close();
+            return channel;
+        });
+        List<Ticket> told = new ArrayList<>();
+        parkingLot.registerParkingEventListener(new ParkingEventListener() {
+            @Override
+            public void carParked(ParkingLot lot, Car car, Ticket ticket) {
+                told.add(ticket);
+            }
+
+            @Override
+            public void carUnparked(ParkingLot lot, Car car, Ticket ticket) {
+                told.add(ticket);
+            }
+        });
+        Ticket ticket = parkingLot.parkCar(car("CAR1"));
+        assertThrows(IOException.class, journal::sync, "sync() should report the failure.");
+        assertFalse(journal.isHealthy(), "The journal should know it can no longer write.");
+        told.clear();
+
+        assertThrows(UncheckedIOException.class, () -> parkingLot.parkCar(car("CAR2")), "Parking should fail rather than go unjournaled.");
+        assertThrows(UncheckedIOException.class, () -> parkingLot.unparkCar(ticket), "Unparking should fail rather than go unjournaled.");
+
+        assertEquals(1, parkingLot.getNumberOfParkedCars(), "A turned down park should leave no car behind.");
+        assertEquals(9, parkingLot.getNumberOfFreeSpaces(), "A turned down park should take no space.");
+        assertEquals(ticket.getParkingSpot(), parkingLot.findCar(ticket), "A turned down unpark should leave the car where it was.");
+        assertEquals(1, parkingLot.findCarsByColor("blue").size(), "Indexes should be unchanged.");
+        assertTrue(told.isEmpty(), "Other listeners should not hear of changes that never happened.");
+    }
+}
@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class ParkingLotConcurrencyTest {
+
+    private static final int GATES = 8;
+    private static final int OPERATIONS_PER_GATE = 20000;
+
+    @Test
+    void testLotIsNeverOversubscribedAndNeverLosesACar() throws Exception {
+        int capacity = 500;
+        ParkingLot parkingLot = new ParkingLot(capacity);
+        AtomicInteger occupied = new AtomicInteger();
+        // gates run concurrently under the read lock; the sampler takes the write lock so that
+        // occupied is exact while it looks, rather than racing the gates' own updates
+        ReadWriteLock sampling = new ReentrantReadWriteLock();
+        AtomicInteger samples = new AtomicInteger();
+        List<String> violations = new ArrayList<>();
+        Map<Ticket, Car> issued = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService gates = Executors.newFixedThreadPool(GATES);
+        List<Future<List<Ticket>>> results = new ArrayList<>();
+        for (int gate = 0; gate < GATES; gate++) {
+            int gateNumber = gate;
+            results.add(gates.submit(() -> {
+                List<Ticket> held = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_GATE; i++) {
+                    sampling.readLock().lock();
+                    try {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        if (held.isEmpty() || random.nextInt(10) < 6) {
+                            Car car = new Car("G" + gateNumber + "-" + i, "White", "Make", "Model", "small", false);
+                            Ticket ticket = parkingLot.parkCar(car);
+                            if (ticket != null) {
+                                occupied.incrementAndGet();
+                                assertTrue(parkingLot.getNumberOfFreeSpaces() >= 0, "Free spaces went negative.");
+                                issued.put(ticket, car);
+                                held.add(ticket);
+                            }
+                        } else {
+                            Ticket ticket = held.remove(random.nextInt(held.size()));
+                            Car car = parkingLot.unparkCar(ticket);
+                            assertSame(issued.remove(ticket), car, "Unpark should return the car parked with the ticket.");
+                            occupied.decrementAndGet();
+                        }
+                    } finally {
+                        sampling.readLock().unlock();
+                    }
+                }
+                return held;
+            }));
+        }
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                sampling.writeLock().lock();
+                try {
+                    int parked = occupied.get();
+                    if (parked > capacity || parked != parkingLot.getNumberOfParkedCars()) {
+                        violations.add(parked + " cars with tickets, " + parkingLot.getNumberOfParkedCars() + " parked in " + capacity + " spaces");
+                    }
+                    samples.incrementAndGet();
+                } finally {
+                    sampling.writeLock().unlock();
+                }
+                LockSupport.parkNanos(100_000);
+            }
+        });
+        sampler.start();
+        start.countDown();
+
+        Set<String> spots = new HashSet<>();
+        int stillParked = 0;
+        for (Future<List<Ticket>> result : results) {
+            for (Ticket ticket : result.get(60, TimeUnit.SECONDS)) {
+                assertEquals(ticket.getParkingSpot(), parkingLot.findCar(ticket), "A parked car should still be findable.");
+                assertTrue(spots.add(ticket.getParkingSpot()), "Two parked cars share " + ticket.getParkingSpot());
+                stillParked++;
+            }
+        }
+        gates.shutdown();
+        sampler.interrupt();
+        sampler.join();
+
+        assertTrue(samples.get() > 0, "The sampler should have looked at the lot.");
+        assertEquals(Collections.emptyList(), violations, "Lot was oversubscribed or lost count of its cars.");
+        assertEquals(stillParked, parkingLot.getNumberOfParkedCars(), "Every car still holding a ticket should be in the lot.");
+        assertEquals(stillParked, parkingLot.getAllParkedCars().size(), "The lot should hold exactly the cars with live tickets.");
+        assertEquals(capacity - stillParked, parkingLot.getNumberOfFreeSpaces(), "Free spaces should match the cars that left.");
+    }
+
+    @Test
+    void testTicketCanOnlyBeUsedAtOneExitGate() throws Exception {
+        ParkingLot parkingLot = new ParkingLot(1000);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tickets.add(parkingLot.parkCar(new Car("CAR" + i, "White", "Make", "Model", "small", false)));
+        }
+
+        AtomicInteger unparked = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService gates = Executors.newFixedThreadPool(GATES);
+        List<Future<?>> results = new ArrayList<>();
+        for (int gate = 0; gate < GATES; gate++) {
+            results.add(gates.submit(() -> {
+                start.await();
+                for (Ticket ticket : tickets) {
+                    if (parkingLot.unparkCar(ticket) != null) {
+                        unparked.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        gates.shutdown();
+
+        assertEquals(1000, unparked.get(), "Each car should leave exactly once.");
+        assertEquals(1000, parkingLot.getNumberOfFreeSpaces(), "Every space should be free again.");
+    }
+}
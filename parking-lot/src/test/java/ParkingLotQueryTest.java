@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+class ParkingLotQueryTest {
+
+    @Test
+    void testFindByColorMakeAndModelIgnoresCase() {
+        ParkingLot parkingLot = new ParkingLot(10);
+        parkingLot.parkCar(new Car("WHITE1", "White", "Toyota", "Camry", "medium", false));
+        parkingLot.parkCar(new Car("WHITE2", "WHITE", "BMW", "X5", "large", false));
+        parkingLot.parkCar(new Car("BLUE1", "Blue", "toyota", "camry", "medium", false));
+
+        assertEquals(2, parkingLot.findCarsByColor("white").size(), "Color lookups should ignore case.");
+        assertEquals(2, parkingLot.findCarsByMake("TOYOTA").size(), "Make lookups should ignore case.");
+        assertEquals(2, parkingLot.findCarsByModel("Camry").size(), "Model lookups should ignore case.");
+        assertTrue(parkingLot.findCarsByColor("Green").isEmpty(), "No green cars are parked.");
+    }
+
+    @Test
+    void testIndexesFollowUnparks() {
+        ParkingLot parkingLot = new ParkingLot(10);
+        Car blue = new Car("BLUE1", "Blue", "BMW", "M3", "small", false);
+        Ticket ticket = parkingLot.parkCar(blue);
+        parkingLot.parkCar(new Car("BLUE2", "Blue", "Audi", "A4", "small", false));
+
+        parkingLot.unparkCar(ticket);
+
+        Map<Car, String> blueCars = parkingLot.findCarsByColor("Blue");
+        assertEquals(1, blueCars.size(), "The unparked car should leave the color index.");
+        assertFalse(blueCars.containsKey(blue), "The unparked car should not be found.");
+        assertTrue(parkingLot.findCarsByMake("BMW").isEmpty(), "The unparked car should leave the make index.");
+    }
+
+    @Test
+    void testFindCarsParkedWithinLastMinutesUsesTheLotClock() {
+        TestClock clock = new TestClock(Instant.parse("2024-03-01T08:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        Car early = new Car("EARLY1", "Red", "Make", "Model", "small", false);
+        parkingLot.parkCar(early);
+        clock.advance(Duration.ofMinutes(20));
+        parkingLot.parkCar(new Car("LATE1", "Red", "Make", "Model", "small", false));
+        parkingLot.parkCar(new Car("LATE2", "Red", "Make", "Model", "small", false));
+        clock.advance(Duration.ofMinutes(20));
+
+        Map<Car, String> recentCars = parkingLot.findCarsParkedWithinLastMinutes(30);
+        assertEquals(2, recentCars.size(), "Only the cars parked 20 minutes ago are within the last 30 minutes.");
+        assertFalse(recentCars.containsKey(early), "The car parked 40 minutes ago is not recent.");
+        assertEquals(3, parkingLot.findCarsParkedWithinLastMinutes(40 + 1).size(), "All cars arrived in the last 41 minutes.");
+    }
+
+    @Test
+    void testCalculateChargeUsesTheLotClock() {
+        TestClock clock = new TestClock(Instant.parse("2024-03-01T08:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        Ticket ticket = parkingLot.parkCar(new Car("CHARGE1", "Red", "Make", "Model", "small", false));
+        clock.advance(Duration.ofMinutes(150));
+
+        assertEquals(2 * ParkingLot.RATE_PER_HOUR, parkingLot.calculateCharge(ticket), "Two full hours should be charged.");
+    }
+}
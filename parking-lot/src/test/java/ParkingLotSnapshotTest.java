@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.ParkingLotSnapshots;
+import com.example.Ticket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ParkingLotSnapshotTest {
+
+    private final TestClock clock = new TestClock(Instant.parse("2024-03-01T08:00:00Z"));
+
+    private Car car(String plate) {
+        return new Car(plate, "Silver", "Volvo", "XC60", "large", true);
+    }
+
+    @Test
+    void testFullAndIncrementalSnapshotsRestoreTheLot() throws IOException {
+        ParkingLot parkingLot = new ParkingLot(5000, clock);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            tickets.add(parkingLot.parkCar(car("CAR" + i)));
+        }
+        ParkingLotSnapshots snapshots = new ParkingLotSnapshots(parkingLot);
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        snapshots.writeFull(full);
+
+        parkingLot.unparkCar(tickets.get(10));
+        parkingLot.unparkCar(tickets.get(3999));
+        Ticket late = parkingLot.parkCar(car("LATE1"));
+        ByteArrayOutputStream incremental = new ByteArrayOutputStream();
+        snapshots.writeIncremental(incremental);
+
+        assertTrue(incremental.size() < full.size() / 100, "An incremental snapshot should only hold the changed spots.");
+
+        ParkingLot restored = new ParkingLot(5000, clock);
+        ParkingLotSnapshots.load(restored, new ByteArrayInputStream(full.toByteArray()), new ByteArrayInputStream(incremental.toByteArray()));
+
+        assertEquals(parkingLot.getNumberOfParkedCars(), restored.getNumberOfParkedCars(), "The restored lot should hold the same cars.");
+        assertEquals(late.getParkingSpot(), restored.findCar(late), "A car parked after the full snapshot should be restored.");
+        assertEquals("Car not found", restored.findCar(tickets.get(3999)), "A car that left should not be restored.");
+        assertEquals("CAR5", restored.unparkCar(tickets.get(5)).getLicensePlate(), "Restored tickets should unpark their cars.");
+    }
+
+    @Test
+    void testIncrementalSnapshotMustFollowItsBase() throws IOException {
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        ParkingLotSnapshots snapshots = new ParkingLotSnapshots(parkingLot);
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        snapshots.writeFull(full);
+        snapshots.writeIncremental(new ByteArrayOutputStream());
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        snapshots.writeIncremental(second);
+
+        assertThrows(IOException.class, () -> ParkingLotSnapshots.load(new ParkingLot(10, clock),
+                new ByteArrayInputStream(full.toByteArray()), new ByteArrayInputStream(second.toByteArray())));
+    }
+
+    @Test
+    void testSnapshotIsConsistentWhileCarsKeepArriving() throws Exception {
+        ParkingLot parkingLot = new ParkingLot(20000, clock);
+        Thread gate = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                parkingLot.parkCar(car("CAR" + i));
+            }
+        });
+        gate.start();
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        new ParkingLotSnapshots(parkingLot).writeFull(full);
+        gate.join();
+
+        ParkingLot restored = new ParkingLot(20000, clock);
+        ParkingLotSnapshots.load(restored, new ByteArrayInputStream(full.toByteArray()));
+        // one gate parks CAR0, CAR1, ... into Spot_1, Spot_2, ..., so any point-in-time image holds
+        // exactly the first k cars, each in its own spot, and nothing parked after it was frozen
+        Map<Car, Ticket> parked = restored.getAllParkedCars();
+        int k = parked.size();
+        Set<String> plates = new HashSet<>();
+        for (Map.Entry<Car, Ticket> entry : parked.entrySet()) {
+            int number = Integer.parseInt(entry.getKey().getLicensePlate().substring("CAR".length()));
+            assertTrue(number < k, "CAR" + number + " was parked after a car missing from the image.");
+            assertEquals("Spot_" + (number + 1), entry.getValue().getParkingSpot(), "Cars should be restored to the spot they had.");
+            plates.add(entry.getKey().getLicensePlate());
+        }
+        assertEquals(k, plates.size(), "Every car in the image should be distinct.");
+        assertEquals(k, restored.getNumberOfParkedCars(), "The restored count should match the image.");
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.ParkingLotView;
+import com.example.Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class ParkingLotViewTest {
+
+    @Test
+    void testViewIsUnaffectedByLaterChanges() {
+        ParkingLot parkingLot = new ParkingLot(100);
+        Car red = new Car("RED1", "Red", "Honda", "Civic", "small", false);
+        Ticket redTicket = parkingLot.parkCar(red);
+        parkingLot.parkCar(new Car("BLUE1", "Blue", "BMW", "X5", "large", false));
+
+        ParkingLotView view = parkingLot.view();
+        parkingLot.unparkCar(redTicket);
+        parkingLot.parkCar(new Car("GREEN1", "Green", "Audi", "A4", "medium", false));
+
+        assertEquals(2, view.size(), "The view should keep the cars parked when it was taken.");
+        assertEquals(red, view.getCarAt("Spot_1"), "The view should still show the car that has since left.");
+        assertEquals(redTicket, view.getTicketAt("Spot_1"), "The view should still show that car's ticket.");
+        assertEquals(1, view.findCarsByColor("red").count(), "Queries on the view should see the old cars.");
+        assertEquals(0, view.findCarsByColor("green").count(), "Queries on the view should not see later cars.");
+        assertEquals(2, parkingLot.view().size(), "A new view should see the current cars.");
+    }
+
+    @Test
+    void testViewIteratesInSpotOrder() {
+        ParkingLot parkingLot = new ParkingLot(2000);
+        for (int i = 0; i < 1500; i++) {
+            parkingLot.parkCar(new Car("CAR" + i, "White", "Ford", "Focus", "medium", false));
+        }
+
+        List<String> spots = new ArrayList<>();
+        for (Map.Entry<Car, Ticket> entry : parkingLot.view()) {
+            spots.add(entry.getValue().getParkingSpot());
+        }
+        assertEquals(1500, spots.size(), "Every parked car should be visited once.");
+        assertEquals("Spot_1", spots.get(0), "Iteration should start at the first spot.");
+        assertEquals("Spot_1500", spots.get(1499), "Iteration should end at the last occupied spot.");
+        assertEquals(1500, parkingLot.view().stream().count(), "The stream should see the same cars.");
+    }
+
+    @Test
+    void testUnchangedLotReusesViewAndReportsChangedSpots() {
+        ParkingLot parkingLot = new ParkingLot(100);
+        Ticket ticket = parkingLot.parkCar(new Car("CAR1", "White", "Ford", "Focus", "medium", false));
+        ParkingLotView before = parkingLot.view();
+        assertEquals(before.getSequence(), parkingLot.view().getSequence(), "Polling a quiet lot should not create a new version.");
+
+        parkingLot.unparkCar(ticket);
+        parkingLot.parkCar(new Car("CAR2", "White", "Ford", "Focus", "medium", false));
+        parkingLot.parkCar(new Car("CAR3", "White", "Ford", "Focus", "medium", false));
+
+        assertEquals(Arrays.asList("Spot_1", "Spot_2"), parkingLot.view().spotsChangedSince(before).collect(Collectors.toList()),
+                "Only the spots that changed should be reported.");
+    }
+
+    @Test
+    void testEachViewKeepsItsOwnPictureAcrossManyChanges() {
+        ParkingLot parkingLot = new ParkingLot(5000);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tickets.add(parkingLot.parkCar(new Car("CAR" + i, "White", "Ford", "Focus", "medium", false)));
+        }
+        ParkingLotView full = parkingLot.view();
+
+        for (int i = 0; i < 3000; i += 2) {
+            parkingLot.unparkCar(tickets.get(i));
+        }
+        ParkingLotView half = parkingLot.view();
+
+        for (int i = 3000; i < 4000; i++) {
+            parkingLot.parkCar(new Car("CAR" + i, "Black", "Ford", "Focus", "medium", false));
+        }
+
+        assertEquals(3000, full.size(), "The first view should keep every car.");
+        assertEquals(3000, full.stream().count(), "The first view's trie should be untouched by later writes.");
+        assertEquals(1500, half.size(), "The second view should keep only the cars still parked.");
+        assertEquals(1500, half.stream().count(), "The second view's trie should be untouched by later writes.");
+        assertNull(half.getCarAt("Spot_1"), "A spot freed before the second view should be empty in it.");
+        assertEquals(0, half.findCarsByColor("black").count(), "Later cars should not reach the second view.");
+        assertEquals(2500, parkingLot.view().size(), "A new view should see the current cars.");
+    }
+}
@@ -0,0 +1,122 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingAnalytics;
+import com.example.ParkingAttendant;
+import com.example.ParkingLot;
+import com.example.Reservation;
+import com.example.Ticket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class ReservationTest {
+
+    private static Car car(String plate) {
+        return new Car(plate, "White", "Ford", "Focus", "medium", false);
+    }
+
+    @Test
+    void testHoldCountsAgainstCapacityAndTurnsIntoAPark() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(2, clock);
+        Reservation reservation = parkingLot.hold(Duration.ofMinutes(15));
+        parkingLot.parkCar(car("WALKIN1"));
+
+        assertTrue(parkingLot.isFull(), "A hold should take up a space.");
+        assertEquals(1, parkingLot.getNumberOfParkedCars(), "A hold is not a parked car.");
+        assertNull(parkingLot.parkCar(car("WALKIN2")), "Nobody else should get the held space.");
+
+        clock.advance(Duration.ofMinutes(10));
+        Ticket ticket = parkingLot.parkCar(reservation, car("RESERVED1"));
+        assertEquals(reservation.getParkingSpot(), ticket.getParkingSpot(), "The car should get the held spot.");
+        assertEquals(2, parkingLot.getNumberOfParkedCars(), "The hold should now be a parked car.");
+        assertEquals(0, parkingLot.getNumberOfHeldSpaces(), "The hold should be used up.");
+        assertNull(parkingLot.parkCar(reservation, car("RESERVED2")), "A hold can only be used once.");
+    }
+
+    @Test
+    void testHoldsAreSeenByAttendantsAndAnalytics() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot roomy = new ParkingLot(3, clock);
+        ParkingLot small = new ParkingLot(2, clock);
+        ParkingAttendant attendant = new ParkingAttendant("Holds", Arrays.asList(roomy, small));
+        ParkingAnalytics analytics = new ParkingAnalytics(Collections.singletonList(roomy), Duration.ofHours(1), 24);
+
+        List<Reservation> holds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            holds.add(roomy.hold(Duration.ofMinutes(15)));
+        }
+        List<ParkingAnalytics.Bucket> series = analytics.getOccupancySeries(roomy);
+        assertEquals(3, series.get(series.size() - 1).getHeldSpaces(), "Analytics should count the held spots.");
+        assertNotNull(attendant.parkCar(car("LARGE1"), false, true), "The attendant should not send cars to a lot that is all held.");
+        assertEquals(1, small.getNumberOfParkedCars(), "The car should go to the lot with free spots.");
+
+        holds.forEach(roomy::cancel);
+        series = analytics.getOccupancySeries(roomy);
+        assertEquals(0, series.get(series.size() - 1).getHeldSpaces(), "Cancelled holds should leave the series.");
+        attendant.parkCar(car("LARGE2"), false, true);
+        assertEquals(1, roomy.getNumberOfParkedCars(), "Freed spots should make the lot the roomiest again.");
+    }
+
+    @Test
+    void testExpiredAndCancelledHoldsGiveTheSpaceBack() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(1, clock);
+        Reservation expiring = parkingLot.hold(Duration.ofMinutes(15));
+
+        clock.advance(Duration.ofMinutes(16));
+        assertNotNull(parkingLot.parkCar(car("WALKIN1")), "An expired hold should not keep the lot full.");
+        assertFalse(expiring.isActive(), "The hold should have expired.");
+        assertNull(parkingLot.parkCar(expiring, car("LATE1")), "An expired hold can't be used.");
+
+        ParkingLot other = new ParkingLot(1, clock);
+        Reservation cancelled = other.hold(Duration.ofMinutes(15));
+        assertTrue(other.cancel(cancelled), "An active hold can be cancelled.");
+        assertFalse(other.cancel(cancelled), "A hold can only be cancelled once.");
+        assertEquals(1, other.getNumberOfFreeSpaces(), "Cancelling should free the space.");
+    }
+
+    @Test
+    void testThousandsOfHoldsExpireOnTime() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(5000, clock);
+        for (int i = 0; i < 5000; i++) {
+            parkingLot.hold(Duration.ofSeconds(60 + i % 3600));
+        }
+
+        clock.advance(Duration.ofMinutes(30));
+        parkingLot.processTimers();
+        assertEquals(5000 - 1741 - 1400, parkingLot.getNumberOfHeldSpaces(), "Holds of up to 30 minutes should have expired.");
+        clock.advance(Duration.ofHours(2));
+        parkingLot.processTimers();
+        assertEquals(0, parkingLot.getNumberOfHeldSpaces(), "Every hold should have expired.");
+        assertEquals(5000, parkingLot.getNumberOfFreeSpaces(), "Every space should be free again.");
+    }
+
+    @Test
+    void testOverstayAlarmFiresOnlyForCarsStillParked() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot parkingLot = new ParkingLot(10, clock);
+        List<Car> overstayed = new ArrayList<>();
+        parkingLot.setOverstayAlarm(Duration.ofHours(4), (lot, car, ticket) -> overstayed.add(car));
+
+        parkingLot.parkCar(car("STAYS1"));
+        Ticket leaves = parkingLot.parkCar(car("LEAVES1"));
+        clock.advance(Duration.ofHours(1));
+        parkingLot.unparkCar(leaves);
+        parkingLot.processTimers();
+        assertTrue(overstayed.isEmpty(), "Nobody has overstayed yet.");
+
+        clock.advance(Duration.ofHours(3));
+        parkingLot.processTimers();
+        assertEquals(1, overstayed.size(), "Only the car still parked should overstay.");
+        assertEquals(car("STAYS1"), overstayed.get(0), "The car that stayed should be flagged.");
+        parkingLot.processTimers();
+        assertEquals(1, overstayed.size(), "The alarm should fire once.");
+    }
+}
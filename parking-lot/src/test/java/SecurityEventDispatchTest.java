@@ -0,0 +1,175 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.AsyncSecurityEventDispatcher;
+import com.example.AsyncSecurityEventDispatcher.OverflowPolicy;
+import com.example.BatchResult;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.SecurityObserver;
+import com.example.Ticket;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class SecurityEventDispatchTest {
+
+    private static class RecordingObserver implements SecurityObserver {
+        final List<Boolean> notifications = new CopyOnWriteArrayList<>();
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void notify(boolean isFull) {
+            try {
+                released.await(5, TimeUnit.SECONDS); // an alarm panel that is slow to answer
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            notifications.add(isFull);
+        }
+    }
+
+    @Test
+    void testObserversOnlyHearAboutTransitions() {
+        ParkingLot parkingLot = new ParkingLot(2);
+        RecordingObserver observer = new RecordingObserver();
+        observer.released.countDown();
+        parkingLot.registerSecurityObserver(observer);
+
+        parkingLot.updateFullSign();
+        parkingLot.parkCar(new Car("CAR1", "White", "Make", "Model", "small", false));
+        parkingLot.updateFullSign();
+        Ticket ticket = parkingLot.parkCar(new Car("CAR2", "White", "Make", "Model", "small", false));
+        parkingLot.updateFullSign();
+        parkingLot.updateFullSign();
+        parkingLot.unparkCar(ticket);
+        parkingLot.updateFullSign();
+
+        assertEquals(Arrays.asList(true, false), observer.notifications, "Only the two transitions should be reported.");
+    }
+
+    @Test
+    void testSlowObserverDoesNotBlockParkingAndBurstsAreCoalesced() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(1);
+        RecordingObserver observer = new RecordingObserver();
+        parkingLot.registerSecurityObserver(observer);
+
+        try (AsyncSecurityEventDispatcher dispatcher = new AsyncSecurityEventDispatcher(16, OverflowPolicy.DROP_OLDEST)) {
+            parkingLot.setSecurityEventDispatcher(dispatcher);
+            for (int i = 0; i < 1000; i++) {
+                Ticket ticket = parkingLot.parkCar(new Car("CAR" + i, "White", "Make", "Model", "small", false));
+                parkingLot.updateFullSign();
+                parkingLot.unparkCar(ticket);
+                parkingLot.updateFullSign();
+            }
+            parkingLot.parkCar(new Car("LAST", "White", "Make", "Model", "small", false));
+            parkingLot.updateFullSign();
+
+            assertTrue(observer.notifications.isEmpty(), "Parking should not wait for the observer.");
+            observer.released.countDown();
+        }
+
+        assertTrue(observer.notifications.size() < 100, "2001 transitions should be coalesced, got " + observer.notifications.size());
+        assertTrue(observer.notifications.get(observer.notifications.size() - 1), "The observer should end up seeing the lot full.");
+    }
+
+    @Test
+    void testSharedDispatcherNeverDropsOneLotsTransitionForAnothers() throws InterruptedException {
+        ParkingLot quietLot = new ParkingLot(1);
+        ParkingLot busyLot = new ParkingLot(1);
+        RecordingObserver quiet = new RecordingObserver();
+        RecordingObserver busy = new RecordingObserver();
+        quietLot.registerSecurityObserver(quiet);
+        busyLot.registerSecurityObserver(busy);
+
+        try (AsyncSecurityEventDispatcher dispatcher = new AsyncSecurityEventDispatcher(1, OverflowPolicy.DROP_OLDEST)) {
+            quietLot.setSecurityEventDispatcher(dispatcher);
+            busyLot.setSecurityEventDispatcher(dispatcher);
+            quietLot.parkCar(new Car("QUIET", "White", "Make", "Model", "small", false));
+            quietLot.updateFullSign();
+            for (int i = 0; i < 100; i++) {
+                Ticket ticket = busyLot.parkCar(new Car("BUSY" + i, "White", "Make", "Model", "small", false));
+                busyLot.updateFullSign();
+                busyLot.unparkCar(ticket);
+                busyLot.updateFullSign();
+            }
+            quiet.released.countDown();
+            busy.released.countDown();
+        }
+
+        assertEquals(Arrays.asList(true), quiet.notifications, "The quiet lot's only transition should be delivered.");
+    }
+
+    @Test
+    void testLotFullWhenTheDispatcherIsInstalledStillReportsBecomingFree() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(1);
+        RecordingObserver observer = new RecordingObserver();
+        observer.released.countDown();
+        parkingLot.registerSecurityObserver(observer);
+        Ticket ticket = parkingLot.parkCar(new Car("CAR1", "White", "Make", "Model", "small", false));
+        parkingLot.updateFullSign();
+
+        try (AsyncSecurityEventDispatcher dispatcher = new AsyncSecurityEventDispatcher(16, OverflowPolicy.BLOCK)) {
+            parkingLot.setSecurityEventDispatcher(dispatcher);
+            parkingLot.unparkCar(ticket);
+            parkingLot.updateFullSign();
+        }
+
+        assertEquals(Arrays.asList(true, false), observer.notifications, "The not-full transition should reach the observer.");
+    }
+
+    @Test
+    void testFailingObserversAreCounted() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(1);
+        RecordingObserver observer = new RecordingObserver();
+        observer.released.countDown();
+        parkingLot.registerSecurityObserver(isFull -> {
+            throw new IllegalStateException("alarm panel offline");
+        });
+        parkingLot.registerSecurityObserver(observer);
+
+        AsyncSecurityEventDispatcher dispatcher = new AsyncSecurityEventDispatcher(16, OverflowPolicy.DROP_OLDEST);
+        parkingLot.setSecurityEventDispatcher(dispatcher);
+        parkingLot.parkCar(new Car("CAR1", "White", "Make", "Model", "small", false));
+        parkingLot.updateFullSign();
+        dispatcher.close();
+
+        assertEquals(1, dispatcher.getFailedNotifications(), "The failing observer should be counted.");
+        assertEquals(Arrays.asList(true), observer.notifications, "The other observer should still be told.");
+    }
+
+    @Test
+    void testWaitingForRoomHoldsUpNeitherOtherGatesNorClose() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(2);
+        RecordingObserver observer = new RecordingObserver();
+        parkingLot.registerSecurityObserver(observer);
+        AsyncSecurityEventDispatcher dispatcher = new AsyncSecurityEventDispatcher(1, OverflowPolicy.BLOCK);
+        parkingLot.setSecurityEventDispatcher(dispatcher);
+
+        parkingLot.parkCar(new Car("CAR1", "White", "Make", "Model", "small", false));
+        Ticket second = parkingLot.parkCar(new Car("CAR2", "White", "Make", "Model", "small", false));
+        parkingLot.updateFullSign(); // taken by the worker, which gets stuck in the observer
+        Thread.sleep(200);
+        parkingLot.unparkCar(second);
+        parkingLot.updateFullSign(); // fills the queue
+        Ticket third = parkingLot.parkCar(new Car("CAR3", "White", "Make", "Model", "small", false));
+        Thread waiting = new Thread(parkingLot::updateFullSign);
+        waiting.start();
+        Thread.sleep(200);
+        assertTrue(waiting.isAlive(), "A full queue should make the publisher wait.");
+
+        parkingLot.unparkCar(third);
+        BatchResult<Car, Ticket> result = parkingLot.parkAll(Arrays.asList(new Car("CAR4", "White", "Make", "Model", "small", false)));
+        assertEquals(1, result.getSucceeded().size(), "Other gates should not wait behind a blocked publish.");
+
+        Thread closing = new Thread(dispatcher::close);
+        closing.start();
+        waiting.join(2000);
+        assertFalse(waiting.isAlive(), "A publish waiting for room should give up once the dispatcher closes.");
+        observer.released.countDown();
+        closing.join(5000);
+        assertFalse(closing.isAlive(), "Closing should finish once the observer answers.");
+    }
+}
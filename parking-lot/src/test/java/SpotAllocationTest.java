@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.Ticket;
+
+import java.util.HashSet;
+import java.util.Set;
+
+class SpotAllocationTest {
+
+    private Car car(String plate) {
+        return new Car(plate, "White", "Make", "Model", "small", false);
+    }
+
+    @Test
+    void testFreedSpotIsReusedBeforeHigherSpots() {
+        ParkingLot parkingLot = new ParkingLot(3);
+        parkingLot.parkCar(car("CAR1"));
+        Ticket second = parkingLot.parkCar(car("CAR2"));
+        Ticket third = parkingLot.parkCar(car("CAR3"));
+
+        parkingLot.unparkCar(second);
+        Ticket fourth = parkingLot.parkCar(car("CAR4"));
+
+        assertEquals("Spot_2", fourth.getParkingSpot(), "The lowest freed spot should be handed out again.");
+        assertNotEquals(third.getParkingSpot(), fourth.getParkingSpot(), "An occupied spot must never be handed out twice.");
+    }
+
+    @Test
+    void testSpotsStayUniqueAcrossManyUnparks() {
+        ParkingLot parkingLot = new ParkingLot(5000);
+        Ticket[] tickets = new Ticket[5000];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = parkingLot.parkCar(car("CAR" + i));
+        }
+        for (int i = 0; i < tickets.length; i += 3) {
+            parkingLot.unparkCar(tickets[i]);
+            tickets[i] = parkingLot.parkCar(car("NEW" + i));
+        }
+
+        Set<String> spots = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            assertTrue(spots.add(ticket.getParkingSpot()), "Spot " + ticket.getParkingSpot() + " was assigned twice.");
+        }
+        assertTrue(parkingLot.isFull(), "Every spot should be taken again.");
+        assertNull(parkingLot.getNearestFreeSpot(), "A full lot has no nearest free spot.");
+    }
+
+    @Test
+    void testNearestFreeSpotFollowsUnparks() {
+        ParkingLot parkingLot = new ParkingLot(200);
+        Ticket[] tickets = new Ticket[200];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = parkingLot.parkCar(car("CAR" + i));
+        }
+
+        parkingLot.unparkCar(tickets[130]);
+        parkingLot.unparkCar(tickets[70]);
+        assertEquals("Spot_71", parkingLot.getNearestFreeSpot(), "The nearest free spot should be the lowest numbered one.");
+        assertTrue(parkingLot.hasNearestFreeSpace(), "The lot has free space after unparking.");
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.RevenueReport;
+import com.example.Tariff;
+import com.example.Ticket;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+
+class TariffTest {
+    // 2024-01-01 is a Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void testBandsGraceAndSizes() {
+        Tariff tariff = new Tariff(2.0)
+                .band(LocalTime.of(8, 0), LocalTime.of(18, 0), 6.0, DayOfWeek.MONDAY, DayOfWeek.TUESDAY)
+                .gracePeriod(Duration.ofMinutes(15))
+                .sizeRate("large", 1.5);
+
+        assertEquals(0.0, tariff.charge("small", MONDAY.withHour(9), MONDAY.withHour(9).plusMinutes(15)), "Stays within the grace period are free.");
+        assertEquals(6.0, tariff.charge("small", MONDAY.withHour(9), MONDAY.withHour(10)), "Daytime hours on Monday use the band rate.");
+        assertEquals(2.0, tariff.charge("small", MONDAY.withHour(20), MONDAY.withHour(21)), "Evening hours use the base rate.");
+        assertEquals(8.0, tariff.charge("small", MONDAY.withHour(17), MONDAY.withHour(19)), "A stay across the band edge pays each rate for its part.");
+        assertEquals(9.0, tariff.charge("LARGE", MONDAY.withHour(9), MONDAY.withHour(10)), "Large cars pay the size multiplier.");
+        assertEquals(2.0, tariff.charge(null, MONDAY.plusDays(2).withHour(9), MONDAY.plusDays(2).withHour(10)), "Wednesday has no band.");
+    }
+
+    @Test
+    void testDailyCapMatchesMinuteByMinutePricing() {
+        Tariff tariff = new Tariff(3.0)
+                .band(LocalTime.of(22, 0), LocalTime.of(6, 0), 1.0)
+                .band(LocalTime.of(9, 0), LocalTime.of(17, 0), 8.0, DayOfWeek.SATURDAY)
+                .dailyCap(40.0);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime arrival = MONDAY.plusMinutes(random.nextInt(7 * 24 * 60));
+            LocalDateTime departure = arrival.plusMinutes(random.nextInt(20 * 24 * 60));
+            assertEquals(slowCharge(arrival, departure), tariff.charge("small", arrival, departure), 0.011,
+                    "The precomputed tables should match pricing minute by minute for " + arrival + " to " + departure);
+        }
+    }
+
+    // Walks the stay a day at a time, capping each 24 hours from arrival
+    private static double slowCharge(LocalDateTime arrival, LocalDateTime departure) {
+        double total = 0.0;
+        LocalDateTime dayStart = arrival;
+        while (dayStart.isBefore(departure)) {
+            LocalDateTime dayEnd = dayStart.plusDays(1).isBefore(departure) ? dayStart.plusDays(1) : departure;
+            double day = 0.0;
+            for (LocalDateTime t = dayStart; t.isBefore(dayEnd); t = t.plusMinutes(1)) {
+                int hour = t.getHour();
+                double rate = hour >= 22 || hour < 6 ? 1.0
+                        : t.getDayOfWeek() == DayOfWeek.SATURDAY && hour >= 9 && hour < 17 ? 8.0 : 3.0;
+                day += rate / 60.0;
+            }
+            total += Math.min(40.0, day);
+            dayStart = dayEnd;
+        }
+        return total;
+    }
+
+    @Test
+    void testRevenueReportPricesOpenTicketsAcrossLots() {
+        TestClock clock = new TestClock(Instant.parse("2024-01-01T10:00:00Z"));
+        ParkingLot first = new ParkingLot(10, clock);
+        ParkingLot second = new ParkingLot(10, clock);
+        Tariff tariff = new Tariff(4.0).sizeRate("large", 2.0);
+        first.setTariff(tariff);
+        second.setTariff(tariff);
+
+        Ticket small = first.parkCar(new Car("SMALL1", "Red", "Fiat", "500", "small", false));
+        Ticket large = second.parkCar(new Car("LARGE1", "Black", "Ford", "F150", "large", false));
+        Ticket gone = second.parkCar(new Car("GONE1", "White", "Kia", "Rio", "small", false));
+        second.unparkCar(gone);
+        clock.advance(Duration.ofMinutes(90));
+
+        RevenueReport report = RevenueReport.of(Arrays.asList(first, second));
+        assertEquals(2, report.getOpenTickets(), "Only tickets still open should be priced.");
+        assertEquals(6.0, report.getChargeFor(small), 1e-9, "A small car pays the base rate.");
+        assertEquals(12.0, report.getChargeFor(large), 1e-9, "A large car pays twice the base rate.");
+        assertEquals(18.0, report.getTotal(), 1e-9, "The total should add up every open ticket.");
+        assertEquals(first.calculateCharge(small), report.getChargeFor(small), 1e-9, "The report should agree with the lot.");
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.SequenceTicketIdGenerator;
+import com.example.Ticket;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class TicketIdGeneratorTest {
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        SequenceTicketIdGenerator generator = new SequenceTicketIdGenerator(7);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50000; i++) {
+                    ids.add(generator.nextTicketId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8 * 50000, ids.size(), "Every ticket id should be unique.");
+    }
+
+    @Test
+    void testTicketIdIdentifiesItsLot() {
+        ParkingLot parkingLot = new ParkingLot(10, Clock.systemUTC(), new SequenceTicketIdGenerator(SequenceTicketIdGenerator.MAX_LOT_ID));
+        Ticket ticket = parkingLot.parkCar(new Car("ID1", "White", "Make", "Model", "small", false));
+
+        assertEquals(13, ticket.getTicketId().length(), "Ticket ids should print as 13 characters.");
+        assertEquals(SequenceTicketIdGenerator.MAX_LOT_ID, SequenceTicketIdGenerator.lotIdOf(ticket.getTicketId()), "The lot should be readable from the ticket id.");
+        assertEquals(-1, SequenceTicketIdGenerator.lotIdOf("Invalid123"), "Foreign ids belong to no lot.");
+    }
+
+    @Test
+    void testLotIdsOfDiscardedLotsAreReused() throws InterruptedException {
+        for (int i = 0; i <= SequenceTicketIdGenerator.MAX_LOT_ID + 1000; i++) {
+            assertNotNull(new ParkingLot(1).parkCar(new Car("ID" + i, "White", "Make", "Model", "small", false)), "Every lot should issue tickets, however many were made before it.");
+        }
+
+        String ticketId = null;
+        for (int attempt = 0; attempt < 50 && SequenceTicketIdGenerator.lotIdOf(String.valueOf(ticketId)) < 0; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+            ticketId = new ParkingLot(1).parkCar(new Car("ID", "White", "Make", "Model", "small", false)).getTicketId();
+        }
+        assertTrue(SequenceTicketIdGenerator.lotIdOf(ticketId) >= 0, "A new lot should get the lot id of a discarded one.");
+    }
+
+    @Test
+    void testLotIdMustFitInTheId() {
+        assertThrows(IllegalArgumentException.class, () -> new SequenceTicketIdGenerator(SequenceTicketIdGenerator.MAX_LOT_ID + 1));
+    }
+
+    @Test
+    void testSequenceIsSeededFromTheLotsClock() {
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+        String first = new SequenceTicketIdGenerator(3, clock).nextTicketId();
+
+        assertEquals(first, new SequenceTicketIdGenerator(3, clock).nextTicketId(), "Generators on the same clock should start at the same id.");
+        assertNotEquals(first, new SequenceTicketIdGenerator(3, Clock.offset(clock, Duration.ofMillis(1))).nextTicketId(), "A later clock should start further on.");
+    }
+}
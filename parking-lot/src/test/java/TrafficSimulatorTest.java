@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import com.example.Car;
+import com.example.ParkingLot;
+import com.example.SimulationReport;
+import com.example.TrafficSimulator;
+import com.example.TrafficTrace;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.Arrays;
+
+class TrafficSimulatorTest {
+
+    @Test
+    void testGeneratedTracesFollowTheirRates() {
+        TrafficTrace steady = TrafficTrace.poisson(10, Duration.ofMinutes(10), Duration.ofMinutes(5), 1);
+        assertEquals(6000, steady.getVisits().size(), 300, "About 10 arrivals a second for 10 minutes.");
+
+        TrafficTrace surge = TrafficTrace.surge(1, 50, Duration.ofMinutes(5), Duration.ofMinutes(1),
+                Duration.ofMinutes(10), Duration.ofMinutes(5), 1);
+        long inSurge = surge.getVisits().stream()
+                .filter(visit -> visit.getArrivalMillis() >= 300_000 && visit.getArrivalMillis() < 360_000).count();
+        assertEquals(3000, inSurge, 250, "About 50 arrivals a second during the surge.");
+        assertEquals(540, surge.getVisits().size() - inSurge, 80, "About one arrival a second outside it.");
+    }
+
+    @Test
+    void testCsvRoundTrip() throws IOException {
+        TrafficTrace trace = new TrafficTrace(Arrays.asList(
+                new TrafficTrace.Visit(0, 5000, new Car("KA01", "Red", "Honda", "Civic", "small", true)),
+                new TrafficTrace.Visit(1000, -1, new Car("KA02", null, "Ford", "Focus", "medium", false))));
+        StringWriter csv = new StringWriter();
+        trace.writeCsv(csv);
+
+        TrafficTrace read = TrafficTrace.readCsv(new StringReader(csv.toString()));
+        assertEquals(2, read.getVisits().size(), "Both visits should be read back.");
+        assertEquals(trace.getVisits().get(0).getCar(), read.getVisits().get(0).getCar(), "Cars should survive the round trip.");
+        assertEquals(-1, read.getVisits().get(1).getDepartureMillis(), "A car that never left should stay parked.");
+        assertNull(read.getVisits().get(1).getCar().getColor(), "Missing fields should read back as null.");
+        assertThrows(IOException.class, () -> TrafficTrace.readCsv(new StringReader("plate,color\nKA01,Red\n")),
+                "A file without the expected header should be rejected.");
+    }
+
+    @Test
+    void testReplayReportsConsistentCounts() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(300);
+        TrafficTrace trace = TrafficTrace.poisson(20, Duration.ofMinutes(2), Duration.ofMinutes(1), 3);
+
+        SimulationReport report = new TrafficSimulator(parkingLot).run(trace, 4, Double.POSITIVE_INFINITY);
+
+        assertEquals(trace.getVisits().size(), report.getParks() + report.getRejectedParks(), "Every arrival is parked or rejected.");
+        assertTrue(report.getRejectedParks() > 0, "At 20 arrivals a second a 300-space lot should turn cars away.");
+        assertEquals(report.getParks() - report.getUnparks(), report.getFinalOccupancy(), "Cars still parked are those that never left.");
+        assertEquals(parkingLot.getNumberOfParkedCars(), report.getFinalOccupancy(), "The report should match the lot.");
+        assertTrue(report.getThroughput() > 0, "Throughput should be measured.");
+        assertTrue(report.getParkLatency().getValueAtPercentile(99) > 0, "Park latency should be recorded.");
+    }
+
+    @Test
+    void testReturningCarIsReplayedInOrder() throws InterruptedException {
+        ParkingLot parkingLot = new ParkingLot(10);
+        Car car = new Car("KA01", "Red", "Honda", "Civic", "small", false);
+        TrafficTrace trace = new TrafficTrace(Arrays.asList(
+                new TrafficTrace.Visit(0, 1000, car),
+                new TrafficTrace.Visit(2000, 3000, car),
+                new TrafficTrace.Visit(4000, -1, car)));
+
+        SimulationReport report = new TrafficSimulator(parkingLot).run(trace, 3, Double.POSITIVE_INFINITY);
+
+        assertEquals(3, report.getParks(), "Each visit should park the car afresh.");
+        assertEquals(2, report.getUnparks(), "Each departure should find the car it parked.");
+        assertEquals(1, parkingLot.getNumberOfParkedCars(), "Only the last visit should leave the car parked.");
+    }
+
+    @Test
+    void testReplayThroughAnAttendantSpreadsOverLots() throws InterruptedException {
+        ParkingLot first = new ParkingLot(200);
+        ParkingLot second = new ParkingLot(200);
+        TrafficTrace trace = TrafficTrace.poisson(5, Duration.ofMinutes(1), Duration.ofMinutes(10), 5);
+
+        SimulationReport report = new TrafficSimulator("Sim", Arrays.asList(first, second)).run(trace, 2, Double.POSITIVE_INFINITY);
+
+        assertEquals(400, report.getCapacity(), "Capacity should cover both lots.");
+        assertEquals(first.getNumberOfParkedCars() + second.getNumberOfParkedCars(), report.getFinalOccupancy(), "Occupancy should cover both lots.");
+        assertTrue(first.getNumberOfParkedCars() > 0 && second.getNumberOfParkedCars() > 0, "Both lots should be used.");
+    }
+
+    @Test
+    void testLockstepRejectionsDependOnTheTraceAlone() throws InterruptedException {
+        TrafficTrace trace = TrafficTrace.surge(10, 50, Duration.ofSeconds(60), Duration.ofSeconds(20), Duration.ofMinutes(2), Duration.ofSeconds(30), 7);
+        SimulationReport sequential = new TrafficSimulator(new ParkingLot(200)).run(trace, 1, Double.POSITIVE_INFINITY);
+        assertTrue(sequential.getRejectedParks() > 0, "The surge should overflow a 200-space lot.");
+
+        for (int run = 0; run < 5; run++) {
+            SimulationReport parallel = new TrafficSimulator(new ParkingLot(200)).runInLockstep(trace, 4);
+            assertEquals(sequential.getRejectedParks(), parallel.getRejectedParks(), "Workers should replay the trace in lockstep.");
+            assertEquals(sequential.getFinalOccupancy(), parallel.getFinalOccupancy(), "The lot should end up equally full.");
+        }
+    }
+}